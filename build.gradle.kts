@@ -0,0 +1,69 @@
+plugins {
+    java
+    application
+    id("com.gradleup.shadow") version "9.2.2"
+    id("me.champeau.jmh") version "0.7.3"
+}
+
+tasks.withType<JavaCompile> {
+    options.release.set(11)
+    options.encoding = "UTF-8"
+}
+
+sourceSets {
+    main {
+        java.setSrcDirs(listOf("src/main"))
+        resources.setSrcDirs(listOf("src/resources"))
+    }
+    test {
+        java.setSrcDirs(listOf("src/test"))
+        resources.setSrcDirs(emptyList<String>())
+    }
+    // Benchmarks, siehe sc.player2022.benchmark.BenchmarkMain
+    named("jmh") {
+        java.setSrcDirs(listOf("src/jmh"))
+        resources.setSrcDirs(listOf("src/jmh/resources"))
+    }
+}
+
+repositories {
+    mavenCentral()
+    maven("https://jitpack.io")
+}
+
+dependencies {
+    if (gradle.startParameter.isOffline) {
+        implementation(fileTree("lib"))
+    } else {
+        implementation("com.github.software-challenge.backend", "ostseeschach_2022", "22.0.3")
+    }
+
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    jmh("org.openjdk.jmh:jmh-core:1.37")
+    jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+application {
+    mainClass.set("sc.player2022.Starter")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    // Zusätzlich zur Zeit den Speicherverbrauch pro Aufruf (gc.alloc.rate.norm) messen
+    profilers.add("gc")
+    includes.addAll(providers.gradleProperty("jmhInclude").map { listOf(it) }.orElse(emptyList()))
+}
+
+tasks.shadowJar {
+    archiveBaseName.set("defaultplayer")
+    archiveClassifier.set("")
+    archiveVersion.set("")
+    destinationDirectory.set(rootDir)
+}
@@ -0,0 +1,22 @@
+package sc.player2022.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Startet alle Benchmarks mit dem GC-Profiler, der zusätzlich zur Zeit den Speicherverbrauch pro Aufruf
+ * (gc.alloc.rate.norm) ausgibt. Optional kann als erstes Argument ein regulärer Ausdruck für die Namen der
+ * Benchmarks angegeben werden, etwa "GameInfoBenchmark.zwickmuehle".
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : BenchmarkMain.class.getPackage().getName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,84 @@
+package sc.player2022.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sc.player2022.logic.AnalysisContext;
+import sc.player2022.logic.Bewertung;
+import sc.player2022.logic.GameInfo;
+import sc.plugin2022.GameState;
+import sc.plugin2022.Move;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks der einzelnen Abfragen aus {@link GameInfo} und {@link Bewertung}. Jeder Aufruf läuft über alle
+ * Stellungen eines Spielabschnitts, angegeben wird die Zeit pro Stellung. Jede Stellung bekommt einen neuen
+ * {@link AnalysisContext} mit leerem Speicher, gemessen wird also immer die erste Abfrage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameInfoBenchmark {
+    @Param({"opening", "midgame", "endgame"})
+    public String phase;
+
+    private List<GameState> positions;
+
+    @Setup
+    public void setup() {
+        positions = Positions.load(phase);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Positions.PER_PHASE)
+    public void getOwnMoves(Blackhole bh) {
+        for (GameState state : positions) {
+            bh.consume(GameInfo.getOwnMoves(AnalysisContext.of(state), state.getBoard()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Positions.PER_PHASE)
+    public void bedrohteFiguren(Blackhole bh) {
+        for (GameState state : positions) {
+            bh.consume(GameInfo.bedrohteFiguren(AnalysisContext.of(state), state.getBoard(), true));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Positions.PER_PHASE)
+    public void zwickmuehle(Blackhole bh) {
+        for (GameState state : positions) {
+            bh.consume(GameInfo.zwickmuehle(AnalysisContext.of(state), state.getBoard(), true));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Positions.PER_PHASE)
+    public void getPointMoves(Blackhole bh) {
+        for (GameState state : positions) {
+            bh.consume(GameInfo.getPointMoves(AnalysisContext.of(state), state.getBoard(), true));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Positions.PER_PHASE)
+    public void getWinningMoves(Blackhole bh) {
+        for (GameState state : positions) {
+            bh.consume(GameInfo.getWinningMoves(AnalysisContext.of(state), state.getBoard(), true));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Positions.PER_PHASE)
+    public void besterZug(Blackhole bh) {
+        for (GameState state : positions) {
+            List<Move> moves = state.getPossibleMoves();
+            bh.consume(Bewertung.besterZug(AnalysisContext.of(state), state.getBoard(), moves));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package sc.player2022.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sc.player2022.logic.Logic;
+import sc.plugin2022.GameState;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark des kompletten Zuges über {@link Logic#calculateMove()}, wie er im Spiel vom Server angefordert wird.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogicBenchmark {
+    @Param({"opening", "midgame", "endgame"})
+    public String phase;
+
+    private List<GameState> positions;
+    private Logic logic;
+
+    @Setup
+    public void setup() {
+        positions = Positions.load(phase);
+        logic = new Logic();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Positions.PER_PHASE)
+    public void calculateMove(Blackhole bh) {
+        for (GameState state : positions) {
+            logic.onUpdate(state);
+            bh.consume(logic.calculateMove());
+        }
+    }
+}
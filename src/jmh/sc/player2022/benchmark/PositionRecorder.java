@@ -0,0 +1,114 @@
+package sc.player2022.benchmark;
+
+import sc.player2022.logic.StaticExchange;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.player2022.logic.bitboard.MoveGenerator;
+import sc.plugin2022.*;
+
+import java.util.*;
+
+/**
+ * Erzeugt die Stellungen für positions.txt. Gespielt werden Spiele von zufälligen, aber über den Startwert festen
+ * Startaufstellungen aus: meist der Zug mit der besten {@link StaticExchange}, danach zählt, wie weit er nach vorne
+ * geht; sonst ein zufälliger Zug. Damit entstehen Schläge, Türme und Bernsteine wie im Spiel, und dieselben Argumente
+ * ergeben immer dieselbe Datei.
+ * <p>
+ * Aufruf: {@code PositionRecorder [startwert]}, die Zeilen werden auf die Standardausgabe geschrieben.
+ */
+public class PositionRecorder {
+    private static final PieceType[] START = {
+            PieceType.Herzmuschel, PieceType.Herzmuschel, PieceType.Moewe, PieceType.Moewe,
+            PieceType.Seestern, PieceType.Seestern, PieceType.Robbe, PieceType.Robbe
+    };
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 0;
+        Map<String, List<String>> phases = new LinkedHashMap<>();
+        for (String phase : new String[]{"opening", "midgame", "endgame"}) {
+            phases.put(phase, new ArrayList<>());
+        }
+
+        for (int game = 0; !full(phases); game++) {
+            Random random = new Random(seed + game);
+            GameState state = start(random);
+            int opening = 2 + game % Positions.PER_PHASE;
+            int midgame = 22 + (game % Positions.PER_PHASE) * 2;
+            int endgame = 44 + (game % Positions.PER_PHASE) * 2;
+
+            while (!state.isOver()) {
+                int turn = state.getTurn();
+                record(phases, "opening", turn == opening, state);
+                record(phases, "midgame", turn == midgame, state);
+                record(phases, "endgame", turn == endgame, state);
+                state.performMove(choose(state, random));
+            }
+        }
+
+        phases.values().forEach(lines -> lines.forEach(System.out::println));
+    }
+
+    private static boolean full(Map<String, List<String>> phases) {
+        return phases.values().stream().allMatch(lines -> lines.size() >= Positions.PER_PHASE);
+    }
+
+    private static void record(Map<String, List<String>> phases, String phase, boolean now, GameState state) {
+        List<String> lines = phases.get(phase);
+        if (now && lines.size() < Positions.PER_PHASE) {
+            lines.add(phase + " " + state.getTurn() + " " + state.getPointsForTeam(Team.ONE) + " "
+                    + state.getPointsForTeam(Team.TWO) + " " + encode(state.getBoard()));
+        }
+    }
+
+    /**
+     * Startaufstellung wie im Spiel: Team ONE auf der linken Linie, Team TWO gespiegelt auf der rechten
+     */
+    private static GameState start(Random random) {
+        List<PieceType> types = new ArrayList<>(Arrays.asList(START));
+        Collections.shuffle(types, random);
+
+        Map<Coordinates, Piece> pieces = new HashMap<>();
+        for (int y = 0; y < 8; y++) {
+            pieces.put(new Coordinates(0, y), new Piece(types.get(y), Team.ONE));
+            pieces.put(new Coordinates(7, 7 - y), new Piece(types.get(y), Team.TWO));
+        }
+        return new GameState(new Board(pieces), 0);
+    }
+
+    private static Move choose(GameState state, Random random) {
+        BitBoard b = BitBoard.of(state);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(b, b.getCurrentTeam(), moves);
+
+        if (random.nextInt(4) == 0) {
+            return MoveGenerator.toMove(moves[random.nextInt(count)]);
+        }
+
+        int best = moves[0];
+        int bestValue = Integer.MIN_VALUE;
+        int richtung = b.getCurrentTeam() == 0 ? 1 : -1;
+        for (int i = 0; i < count; i++) {
+            int from = MoveGenerator.from(moves[i]);
+            int to = MoveGenerator.to(moves[i]);
+            int value = StaticExchange.evaluate(b, from, to) * 4 + (BitBoard.x(to) - BitBoard.x(from)) * richtung;
+            if (value > bestValue) {
+                best = moves[i];
+                bestValue = value;
+            }
+        }
+        return MoveGenerator.toMove(best);
+    }
+
+    private static String encode(Board board) {
+        StringBuilder out = new StringBuilder();
+        for (int sq = 0; sq < 64; sq++) {
+            Piece p = board.get(BitBoard.coordinates(sq));
+            if (p == null) {
+                out.append("..");
+                continue;
+            }
+            char type = p.getType().name().charAt(0);
+            out.append(p.getTeam() == Team.ONE ? type : Character.toLowerCase(type)).append(p.getCount());
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package sc.player2022.benchmark;
+
+import sc.plugin2022.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feste Sammlung aufgezeichneter Stellungen aus Spielen, auf denen alle Benchmarks laufen. Die Stellungen stehen in
+ * positions.txt, eine pro Zeile: Spielabschnitt, Zug, Bernsteine von Team ONE und Team TWO und 64 Felder (y * 8 + x)
+ * mit je zwei Zeichen. ".." ist ein leeres Feld, sonst der Anfangsbuchstabe des Typs (groß für Team ONE, klein für
+ * Team TWO) und die Anzahl der Figuren. Erzeugt wird die Datei mit dem {@link PositionRecorder}.
+ */
+public final class Positions {
+    /** Anzahl der Stellungen pro Spielabschnitt */
+    public static final int PER_PHASE = 8;
+
+    private static final String FILE = "/positions.txt";
+
+    private Positions() {
+    }
+
+    /**
+     * @param phase "opening", "midgame" oder "endgame"
+     * @return Die Stellungen des Spielabschnitts, jeweils als neuer Spielstand
+     */
+    public static List<GameState> load(String phase) {
+        List<GameState> out = new ArrayList<>();
+
+        try (InputStream in = Positions.class.getResourceAsStream(FILE)) {
+            if (in == null) {
+                throw new IllegalStateException(FILE + " nicht gefunden");
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String[] parts = line.trim().split(" ");
+                if (parts.length == 5 && parts[0].equals(phase)) {
+                    Map<Team, Integer> ambers = new HashMap<>();
+                    ambers.put(Team.ONE, Integer.parseInt(parts[2]));
+                    ambers.put(Team.TWO, Integer.parseInt(parts[3]));
+                    out.add(new GameState(parseBoard(parts[4]), Integer.parseInt(parts[1]), null, ambers));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (out.size() != PER_PHASE) {
+            throw new IllegalStateException(out.size() + " Stellungen für " + phase + ", erwartet " + PER_PHASE);
+        }
+        return out;
+    }
+
+    private static Board parseBoard(String squares) {
+        Map<Coordinates, Piece> pieces = new HashMap<>();
+
+        for (int sq = 0; sq < 64; sq++) {
+            char type = squares.charAt(sq * 2);
+            if (type == '.') {
+                continue;
+            }
+            Team team = Character.isUpperCase(type) ? Team.ONE : Team.TWO;
+            int count = squares.charAt(sq * 2 + 1) - '0';
+            pieces.put(new Coordinates(sq % 8, sq / 8), new Piece(parseType(type), team, count));
+        }
+
+        return new Board(pieces);
+    }
+
+    private static PieceType parseType(char c) {
+        for (PieceType type : PieceType.values()) {
+            if (type.name().charAt(0) == Character.toUpperCase(c)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unbekannter Figurentyp: " + c);
+    }
+}
@@ -0,0 +1,239 @@
+package sc.player2022;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sc.api.plugins.IGameState;
+import sc.api.plugins.IMove;
+import sc.player.IGameHandler;
+import sc.player2022.logic.Logic;
+import sc.shared.GameResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Spielt mehrere Spiele gleichzeitig in einer JVM, etwa für Selbstspiel und Tuning. Jedes Spiel bekommt einen eigenen
+ * Client und eine eigene Logik aus der übergebenen Fabrik, die Logiken teilen sich also keinen veränderlichen Zustand.
+ * Gemeinsam genutzt werden nur die unveränderlichen Tabellen (Angriffstabellen, Zobrist-Schlüssel), die ohnehin
+ * statisch sind.
+ * <p>
+ * Jedes Spiel wird von einem eigenen Thread gestartet und überwacht. Ein Spiel gilt als abgebrochen, wenn der Client
+ * einen Fehler meldet oder es nach {@link #GAME_TIMEOUT_MINUTES} Minuten noch läuft. Am Ende wird der Durchsatz in
+ * Spielen pro Minute ausgegeben; gezählt werden nur Spiele, die regulär beendet wurden.
+ */
+public class GameHost {
+  private static final Logger logger = LoggerFactory.getLogger(GameHost.class);
+
+  /** Länger dauert kein reguläres Spiel, auch nicht mit 60 Zügen am Zeitlimit */
+  public static final int GAME_TIMEOUT_MINUTES = 10;
+
+  private final String host;
+  private final int port;
+  private final Supplier<IGameHandler> logicFactory;
+
+  private final List<Runnable> games = new ArrayList<>();
+  private final AtomicInteger finished = new AtomicInteger();
+  private final AtomicInteger aborted = new AtomicInteger();
+
+  private CountDownLatch running;
+  private long start;
+
+  /**
+   * @param logicFactory Erzeugt für jedes Spiel eine neue Logik
+   */
+  public GameHost(String host, int port, Supplier<IGameHandler> logicFactory) {
+    this.host = host;
+    this.port = port;
+    this.logicFactory = logicFactory;
+  }
+
+  public GameHost addReservation(String reservation) {
+    games.add(() -> join(reservation, null));
+    return this;
+  }
+
+  public GameHost addRoom(String roomId) {
+    games.add(() -> join(null, roomId));
+    return this;
+  }
+
+  /**
+   * Tritt einem beliebigen offenen Spiel bei
+   */
+  public GameHost addOpenGame() {
+    games.add(() -> join(null, null));
+    return this;
+  }
+
+  public int getGameCount() {
+    return games.size();
+  }
+
+  /**
+   * Startet alle Spiele und wartet, bis sie beendet sind.
+   *
+   * @return Anzahl der beendeten Spiele
+   */
+  public int run() throws InterruptedException {
+    running = new CountDownLatch(games.size());
+    start = System.nanoTime();
+
+    ExecutorService pool = Executors.newCachedThreadPool(new GameThreadFactory());
+    for (Runnable game : games) {
+      pool.execute(game);
+    }
+    pool.shutdown();
+
+    running.await();
+    pool.awaitTermination(1, TimeUnit.MINUTES);
+
+    double minutes = (System.nanoTime() - start) / 60e9;
+    logger.info("{} Spiele in {}s, {} Spiele pro Minute, {} abgebrochen", finished.get(), Math.round(minutes * 60),
+            String.format("%.1f", finished.get() / minutes), aborted.get());
+    return finished.get();
+  }
+
+  private void join(String reservation, String roomId) {
+    String name = reservation != null ? reservation : roomId;
+    HostedGame game = new HostedGame(logicFactory.get());
+    try {
+      game.started(new Starter(host, port, reservation, roomId, game));
+      if (!game.awaitEnd(GAME_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+        game.abort("Spiel " + name + " nach " + GAME_TIMEOUT_MINUTES + " Minuten nicht beendet");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      game.abort("Spiel " + name + " unterbrochen");
+    } catch (Exception e) {
+      logger.error("Spiel {} konnte nicht gestartet werden:", name, e);
+      game.abort("Spiel " + name + " nicht gestartet");
+    } finally {
+      running.countDown();
+    }
+  }
+
+  private void gameOver() {
+    int count = finished.incrementAndGet();
+    double minutes = (System.nanoTime() - start) / 60e9;
+    logger.info("Spiel beendet ({} von {}), bisher {} Spiele pro Minute", count, games.size(),
+            String.format("%.1f", count / minutes));
+  }
+
+  private void gameAborted(String reason) {
+    aborted.incrementAndGet();
+    logger.warn("Spiel abgebrochen: {}", reason);
+  }
+
+  /**
+   * Gibt alle Aufrufe an die Logik eines Spiels weiter und meldet dem Host das Spielende. Ein Spiel endet genau einmal,
+   * regulär mit {@link #onGameOver} oder abgebrochen mit {@link #onError} bzw. {@link #abort}; was danach kommt, wird
+   * nicht mehr gezählt. Bei einem Abbruch räumt der Server nicht auf, deshalb werden dann die Verbindung getrennt und
+   * die Threads der Logik beendet.
+   */
+  private class HostedGame implements IGameHandler {
+    private final IGameHandler logic;
+    private final CountDownLatch over = new CountDownLatch(1);
+    private final AtomicBoolean ended = new AtomicBoolean();
+
+    /** Ob das Spiel abgebrochen wurde, im Unterschied zum regulären Ende */
+    private volatile boolean aborted;
+
+    /** Die Verbindung zum Server, null, solange sie noch aufgebaut wird */
+    private volatile Starter starter;
+
+    HostedGame(IGameHandler logic) {
+      this.logic = logic;
+    }
+
+    /**
+     * Merkt sich die Verbindung, um sie bei einem Abbruch zu trennen. Wurde schon während des Aufbaus abgebrochen, wird
+     * sie gleich getrennt.
+     */
+    void started(Starter starter) {
+      this.starter = starter;
+      if (aborted) {
+        starter.stop();
+      }
+    }
+
+    /**
+     * @return Ob das Spiel innerhalb der Zeit geendet hat
+     */
+    boolean awaitEnd(long timeout, TimeUnit unit) throws InterruptedException {
+      return over.await(timeout, unit);
+    }
+
+    void abort(String reason) {
+      if (ended.compareAndSet(false, true)) {
+        aborted = true;
+        over.countDown();
+        gameAborted(reason);
+        release();
+      }
+    }
+
+    private void release() {
+      Starter s = starter;
+      if (s != null) {
+        try {
+          s.stop();
+        } catch (RuntimeException e) {
+          logger.warn("Verbindung konnte nicht getrennt werden:", e);
+        }
+      }
+      if (logic instanceof Logic) {
+        ((Logic) logic).shutdown();
+      }
+    }
+
+    @Override
+    public void onUpdate(IGameState gameState) {
+      logic.onUpdate(gameState);
+    }
+
+    @NotNull
+    @Override
+    public IMove calculateMove() {
+      return logic.calculateMove();
+    }
+
+    @Override
+    public void onGameOver(@NotNull GameResult data) {
+      try {
+        logic.onGameOver(data);
+      } finally {
+        if (ended.compareAndSet(false, true)) {
+          over.countDown();
+          gameOver();
+        }
+      }
+    }
+
+    @Override
+    public void onError(@NotNull String error) {
+      try {
+        logic.onError(error);
+      } finally {
+        abort(error);
+      }
+    }
+  }
+
+  private static class GameThreadFactory implements ThreadFactory {
+    private final AtomicInteger number = new AtomicInteger();
+
+    @Override
+    public Thread newThread(@NotNull Runnable r) {
+      return new Thread(r, "Spiel-" + number.incrementAndGet());
+    }
+  }
+}
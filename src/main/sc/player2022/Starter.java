@@ -8,10 +8,17 @@ import sc.networking.clients.LobbyClient;
 import sc.player.IGameHandler;
 import sc.player.IPlayerClient;
 import sc.player2022.logic.Logic;
+import sc.player2022.logic.MoveSelection;
+import sc.player2022.logic.SearchLogic;
+import sc.player2022.logic.book.OpeningBook;
+import sc.player2022.logic.endgame.Tablebase;
+import sc.player2022.logic.search.TranspositionTable;
 import sc.shared.SharedConfiguration;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
 
 /**
  * Hauptklasse des Clients, die über Konsolenargumente gesteuert werden kann.
@@ -20,10 +27,16 @@ import java.io.IOException;
 public class Starter {
   private static final Logger logger = LoggerFactory.getLogger(Starter.class);
 
+  private final LobbyClient lobby;
+
   public Starter(String host, int port, String reservation, String roomId) throws IOException {
+    this(host, port, reservation, roomId, new Logic());
+  }
+
+  public Starter(String host, int port, String reservation, String roomId, IGameHandler logic) throws IOException {
     // Strategie zuweisen
-    IGameHandler logic = new Logic();
-    IPlayerClient client = new LobbyClient(host, port).asPlayer(logic);
+    lobby = new LobbyClient(host, port);
+    IPlayerClient client = lobby.asPlayer(logic);
 
     // einem Spiel beitreten
     if (reservation != null && !reservation.isEmpty()) {
@@ -35,6 +48,13 @@ public class Starter {
     }
   }
 
+  /**
+   * Trennt die Verbindung zum Server, etwa wenn ein Spiel abgebrochen wird, ohne dass der Server es beendet hat
+   */
+  public void stop() {
+    lobby.stop();
+  }
+
   public static void main(String[] args) {
     System.setProperty("file.encoding", "UTF-8");
 
@@ -45,6 +65,16 @@ public class Starter {
     CmdLineParser.Option reservationOption = parser.addStringOption('r', "reservation");
     CmdLineParser.Option roomOption = parser.addStringOption("room");
     CmdLineParser.Option verifyOption = parser.addBooleanOption("verify");
+    CmdLineParser.Option searchOption = parser.addBooleanOption("search");
+    CmdLineParser.Option hashOption = parser.addIntegerOption("hash");
+    CmdLineParser.Option threadsOption = parser.addIntegerOption("threads");
+    CmdLineParser.Option ponderOption = parser.addBooleanOption("ponder");
+    CmdLineParser.Option gamesOption = parser.addIntegerOption("games");
+    CmdLineParser.Option bookOption = parser.addStringOption("book");
+    CmdLineParser.Option tablebaseOption = parser.addStringOption("tablebase");
+    CmdLineParser.Option seedOption = parser.addLongOption("seed");
+    CmdLineParser.Option deterministicOption = parser.addBooleanOption("deterministic");
+    CmdLineParser.Option coresOption = parser.addIntegerOption("cores");
 
     try {
       // Parameter auslesen
@@ -63,10 +93,84 @@ public class Starter {
     int port = (Integer) parser.getOptionValue(portOption, SharedConfiguration.DEFAULT_PORT);
     String reservation = (String) parser.getOptionValue(reservationOption);
     String room = (String) parser.getOptionValue(roomOption);
+    boolean search = parser.getOptionValue(searchOption) == Boolean.TRUE;
+    int hash = (Integer) parser.getOptionValue(hashOption, TranspositionTable.DEFAULT_MB);
+    int threads = (Integer) parser.getOptionValue(threadsOption, 1);
+    boolean ponder = parser.getOptionValue(ponderOption) == Boolean.TRUE;
+    int games = (Integer) parser.getOptionValue(gamesOption, 0);
+    String bookFile = (String) parser.getOptionValue(bookOption);
+    String tablebaseFile = (String) parser.getOptionValue(tablebaseOption);
+    Long seed = (Long) parser.getOptionValue(seedOption);
+    boolean deterministic = parser.getOptionValue(deterministicOption) == Boolean.TRUE;
+    int cores = (Integer) parser.getOptionValue(coresOption, 1);
+
+    // Das Buch wird einmal eingeblendet und von allen Logiken geteilt
+    OpeningBook book = null;
+    if (bookFile != null) {
+      try {
+        book = OpeningBook.open(Paths.get(bookFile));
+        logger.info("Eröffnungsbuch mit {} Stellungen geladen", book.size());
+      } catch (IOException | IllegalArgumentException e) {
+        logger.error("Eröffnungsbuch konnte nicht geladen werden, spiele ohne:", e);
+      }
+    }
+    OpeningBook sharedBook = book;
+
+    Tablebase tablebase = null;
+    if (tablebaseFile != null) {
+      try {
+        tablebase = Tablebase.open(Paths.get(tablebaseFile));
+        logger.info("Endspieldatenbank bis {} Züge vor Schluss geladen", tablebase.getMaxRemaining());
+      } catch (IOException | IllegalArgumentException e) {
+        logger.error("Endspieldatenbank konnte nicht geladen werden, spiele ohne:", e);
+      }
+    }
+    Tablebase sharedTablebase = tablebase;
+
+    Supplier<IGameHandler> logicFactory = () -> {
+      Logic logic = search ? new SearchLogic(hash, threads, ponder) : new Logic();
+      logic.setBook(sharedBook);
+      logic.setTablebase(sharedTablebase);
+      logic.setParallelism(cores);
+      // Jede Logik bekommt eine eigene Auswahl, damit sich jedes Spiel für sich wiederholen lässt
+      if (deterministic) {
+        logic.setMoveSelection(MoveSelection.deterministic());
+      } else if (seed != null) {
+        logic.setMoveSelection(MoveSelection.seeded(seed));
+      }
+      return logic;
+    };
+
+    // Mehrere Reservierungen bzw. Räume durch Komma getrennt oder --games: alle Spiele in dieser JVM spielen
+    if (games > 0 || (reservation != null && reservation.contains(",")) || (room != null && room.contains(","))) {
+      GameHost gameHost = new GameHost(host, port, logicFactory);
+      if (reservation != null) {
+        for (String r : reservation.split(",")) {
+          gameHost.addReservation(r.trim());
+        }
+      }
+      if (room != null) {
+        for (String r : room.split(",")) {
+          gameHost.addRoom(r.trim());
+        }
+      }
+      for (int i = 0; i < games; i++) {
+        gameHost.addOpenGame();
+      }
+
+      try {
+        gameHost.run();
+        System.exit(0);
+      } catch (InterruptedException e) {
+        logger.error("Unterbrochen:", e);
+        System.exit(1);
+      }
+      return;
+    }
 
     // einen neuen client erzeugen
     try {
-      new Starter(host, port, reservation, room);
+      new Starter(host, port, reservation, room, logicFactory.get());
     } catch (Exception e) {
       logger.error("Beim Starten des Clients ist ein Fehler aufgetreten:", e);
       e.printStackTrace();
@@ -80,8 +184,14 @@ public class Starter {
     System.out.println("\nFolgende Parameter sind erlaubt: \n"
             + "java -jar " + jarName + " [{-h,--host} hostname]\n"
             + "                               [{-p,--port} port]\n"
-            + "                               [{-r,--reservation} reservierung]\n"
-            + "                               [--room raumnummer]\n");
+            + "                               [{-r,--reservation} reservierung[,reservierung...]]\n"
+            + "                               [--room raumnummer[,raumnummer...]]\n"
+            + "                               [--games anzahl]\n"
+            + "                               [--book datei]\n"
+            + "                               [--tablebase datei]\n"
+            + "                               [--deterministic | --seed startwert]\n"
+            + "                               [--cores anzahl]\n"
+            + "                               [--search [--hash megabytes] [--threads anzahl] [--ponder]]\n");
     System.out.println("Beispiel: \n"
             + "java -jar " + jarName + " --host 127.0.0.1 --port 10500 --reservation 1234\n");
   }
@@ -0,0 +1,339 @@
+package sc.player2022.arena;
+
+import jargs.gnu.CmdLineParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sc.api.plugins.IMove;
+import sc.player.IGameHandler;
+import sc.player2022.logic.Logic;
+import sc.player2022.logic.MoveSelection;
+import sc.player2022.logic.SearchLogic;
+import sc.player2022.logic.TimeBudget;
+import sc.plugin2022.Board;
+import sc.plugin2022.Coordinates;
+import sc.plugin2022.GameState;
+import sc.plugin2022.Move;
+import sc.plugin2022.Piece;
+import sc.plugin2022.PieceType;
+import sc.plugin2022.Team;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Lässt zwei Logiken ohne Server gegeneinander spielen. Der Schiedsrichter läuft im selben Prozess: er schickt jedem
+ * Spieler den Spielstand, fragt den Spieler am Zug nach seinem Zug und führt ihn mit
+ * {@link GameState#performMove(Move)} aus. Wie beim Server verliert, wer zu lange braucht oder einen ungültigen Zug
+ * sendet; nach 60 Zügen ist das Spiel vorbei.
+ * <p>
+ * Es werden mehrere Spiele gleichzeitig gespielt, jedes mit eigenen Logiken. Die Seiten werden von Spiel zu Spiel
+ * getauscht, damit keine Logik immer anfängt; beide Spiele eines Paares beginnen mit derselben Startaufstellung. Mit
+ * {@link #setSeed(Long)} hängen die Startaufstellungen nur vom Startwert und der Nummer des Spiels ab, ein Lauf lässt
+ * sich dann Spiel für Spiel wiederholen. {@link IGameHandler#onGameOver} wird nicht aufgerufen, da es ohne
+ * Server kein Spielergebnis-Objekt gibt; stattdessen werden die Threads jeder {@link Logic} nach dem Spiel mit
+ * {@link Logic#shutdown()} beendet.
+ * <p>
+ * Jeder Zug wird in einem eigenen Thread berechnet, damit ein Spieler, der nicht antwortet, nach dem Zeitlimit verliert
+ * und das Spiel nicht aufhält. Alle Spiele zusammen bekommen {@link #GAME_TIMEOUT_MINUTES} Minuten pro Runde paralleler
+ * Spiele; was dann noch läuft, wird abgebrochen und nicht gezählt.
+ */
+public class Arena {
+    private static final Logger log = LoggerFactory.getLogger(Arena.class);
+
+    /** Nach diesem Zug endet das Spiel */
+    public static final int LAST_TURN = 60;
+
+    /** Länger dauert kein Spiel, in dem jeder Zug innerhalb des Zeitlimits kommt */
+    public static final int GAME_TIMEOUT_MINUTES = 10;
+
+    private final Supplier<IGameHandler> playerA;
+    private final Supplier<IGameHandler> playerB;
+    private final long timeLimitMillis;
+
+    /** Startwert für die Startaufstellungen, null für zufällige */
+    private Long seed;
+
+    /**
+     * @param playerA Erzeugt für jedes Spiel eine neue Logik für Spieler A
+     * @param playerB Erzeugt für jedes Spiel eine neue Logik für Spieler B
+     * @param timeLimitMillis Zeit pro Zug; wer länger braucht, verliert
+     */
+    public Arena(Supplier<IGameHandler> playerA, Supplier<IGameHandler> playerB, long timeLimitMillis) {
+        this.playerA = playerA;
+        this.playerB = playerB;
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * @param seed Startwert für die Startaufstellungen oder null, um sie zufällig zu wählen
+     */
+    public Arena setSeed(Long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Spielt mehrere Spiele gleichzeitig.
+     *
+     * @param games Anzahl der Spiele
+     * @param parallel Anzahl der gleichzeitig laufenden Spiele
+     * @return Die Ergebnisse aus Sicht von Spieler A
+     */
+    public ArenaResult run(int games, int parallel) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallel);
+        List<Future<GameRecord>> futures = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            boolean aStarts = i % 2 == 0;
+            GameState start = startState(startRandom(i / 2));
+            futures.add(pool.submit(() -> play(aStarts, start)));
+        }
+        pool.shutdown();
+
+        int rounds = (games + parallel - 1) / parallel;
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos((long) rounds * GAME_TIMEOUT_MINUTES);
+
+        ArenaResult result = new ArenaResult();
+        for (Future<GameRecord> future : futures) {
+            try {
+                GameRecord record = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                result.add(record);
+                log.info("Spiel {}: {}", result.getGames(), record);
+            } catch (ExecutionException e) {
+                log.error("Fehler in einem Spiel:", e.getCause());
+            } catch (TimeoutException e) {
+                log.error("Spiele nach {} Minuten nicht beendet, breche ab", rounds * GAME_TIMEOUT_MINUTES);
+                break;
+            }
+        }
+
+        // Nach einem Abbruch laufen Spiele noch, die werden nicht mehr gezählt
+        pool.shutdownNow();
+        return result;
+    }
+
+    /**
+     * @param pair Nummer des Paares von Spielen mit getauschten Seiten
+     */
+    private Random startRandom(int pair) {
+        return seed != null ? new Random(seed * 1_000_003L + pair) : new Random();
+    }
+
+    /**
+     * Erzeugt eine Startaufstellung wie das Plugin: Je zwei Figuren jedes Typs in zufälliger Reihenfolge auf der
+     * Grundlinie von Team ONE, Team TWO punktsymmetrisch gegenüber.
+     *
+     * @param random Bestimmt die Reihenfolge der Figuren
+     * @return Ein neuer Spielstand vor dem ersten Zug
+     */
+    public static GameState startState(Random random) {
+        List<PieceType> types = new ArrayList<>();
+        for (PieceType type : PieceType.values()) {
+            types.add(type);
+            types.add(type);
+        }
+        Collections.shuffle(types, random);
+
+        Map<Coordinates, Piece> pieces = new HashMap<>();
+        for (int y = 0; y < types.size(); y++) {
+            pieces.put(new Coordinates(0, y), new Piece(types.get(y), Team.ONE, 1));
+            pieces.put(new Coordinates(7, 7 - y), new Piece(types.get(y), Team.TWO, 1));
+        }
+        return new GameState(new Board(pieces), 0);
+    }
+
+    /**
+     * Spielt ein Spiel mit zufälliger Startaufstellung.
+     *
+     * @param aStarts Ob Spieler A als Team ONE beginnt
+     * @return Das Ergebnis aus Sicht von Spieler A
+     */
+    public GameRecord play(boolean aStarts) {
+        return play(aStarts, startState(new Random()));
+    }
+
+    /**
+     * Spielt ein Spiel.
+     *
+     * @param aStarts Ob Spieler A als Team ONE beginnt
+     * @param start Der Spielstand vor dem ersten Zug, wird dabei verändert
+     * @return Das Ergebnis aus Sicht von Spieler A
+     */
+    public GameRecord play(boolean aStarts, GameState start) {
+        IGameHandler a = playerA.get();
+        IGameHandler b = playerB.get();
+        IGameHandler[] players = aStarts ? new IGameHandler[]{a, b} : new IGameHandler[]{b, a};
+        int teamA = aStarts ? 0 : 1;
+
+        ExecutorService mover = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Arena-Zug");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            return play(players, teamA, start, mover);
+        } finally {
+            // Ein abgebrochener Zug darf noch zu Ende rechnen, bevor die Threads der Logik beendet werden
+            mover.shutdownNow();
+            awaitTermination(mover);
+            shutdown(a);
+            shutdown(b);
+        }
+    }
+
+    private GameRecord play(IGameHandler[] players, int teamA, GameState state, ExecutorService mover) {
+        GameRecord record = new GameRecord();
+        record.setStart(aufstellung(state));
+
+        while (!state.isOver() && state.getTurn() < LAST_TURN) {
+            for (IGameHandler player : players) {
+                player.onUpdate(state.clone());
+            }
+
+            int team = state.getCurrentTeam().getIndex();
+            long start = System.nanoTime();
+            Future<IMove> future = mover.submit(players[team]::calculateMove);
+            IMove move;
+            try {
+                move = future.get(timeLimitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                record.addMove(team == teamA, timeLimitMillis);
+                record.forfeit(team == teamA, "Zeit überschritten: keine Antwort nach " + timeLimitMillis + "ms");
+                return record;
+            } catch (ExecutionException e) {
+                log.error("Fehler beim Berechnen eines Zuges:", e.getCause());
+                record.forfeit(team == teamA, "Fehler: " + e.getCause());
+                return record;
+            } catch (InterruptedException e) {
+                // Das ganze Spiel wird abgebrochen, siehe run
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Spiel unterbrochen", e);
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            record.addMove(team == teamA, millis);
+
+            if (millis > timeLimitMillis) {
+                record.forfeit(team == teamA, "Zeit überschritten: " + millis + "ms");
+                return record;
+            }
+            if (!(move instanceof Move) || !state.getPossibleMoves().contains(move)) {
+                record.forfeit(team == teamA, "Ungültiger Zug: " + move);
+                return record;
+            }
+            state.performMove((Move) move);
+        }
+
+        record.finish(state.getPointsForTeam(team(teamA)), state.getPointsForTeam(team(1 - teamA)), state.getTurn());
+        return record;
+    }
+
+    private void awaitTermination(ExecutorService mover) {
+        try {
+            mover.awaitTermination(timeLimitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ersetzt {@link IGameHandler#onGameOver}, das ohne Server nicht aufgerufen wird
+     */
+    private static void shutdown(IGameHandler player) {
+        if (player instanceof Logic) {
+            ((Logic) player).shutdown();
+        }
+    }
+
+    /**
+     * @return Die Figuren von Team ONE auf der Grundlinie von y = 0 bis 7, je ein Buchstabe
+     */
+    private static String aufstellung(GameState state) {
+        StringBuilder out = new StringBuilder();
+        for (int y = 0; y < 8; y++) {
+            Piece piece = state.getBoard().get(new Coordinates(0, y));
+            out.append(piece != null ? piece.getType().name().charAt(0) : '.');
+        }
+        return out.toString();
+    }
+
+    private static Team team(int index) {
+        return index == 0 ? Team.ONE : Team.TWO;
+    }
+
+    /**
+     * @param name "logic" oder "search"
+     * @param selection Erzeugt für jede Logik die Auswahl in {@link sc.player2022.logic.Bewertung#besterZug}
+     * @return Eine Fabrik für die Logik
+     */
+    private static Supplier<IGameHandler> player(String name, int hash, Supplier<MoveSelection> selection) {
+        Supplier<Logic> factory;
+        switch (name) {
+            case "logic":
+                factory = Logic::new;
+                break;
+            case "search":
+                factory = () -> new SearchLogic(hash, 1, false);
+                break;
+            default:
+                throw new IllegalArgumentException("Unbekannte Logik: " + name);
+        }
+
+        return () -> {
+            Logic logic = factory.get();
+            logic.setMoveSelection(selection.get());
+            return logic;
+        };
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        CmdLineParser parser = new CmdLineParser();
+        CmdLineParser.Option gamesOption = parser.addIntegerOption('n', "games");
+        CmdLineParser.Option parallelOption = parser.addIntegerOption("parallel");
+        CmdLineParser.Option aOption = parser.addStringOption('a', "a");
+        CmdLineParser.Option bOption = parser.addStringOption('b', "b");
+        CmdLineParser.Option timeOption = parser.addIntegerOption("time");
+        CmdLineParser.Option hashOption = parser.addIntegerOption("hash");
+        CmdLineParser.Option seedOption = parser.addLongOption("seed");
+        CmdLineParser.Option deterministicOption = parser.addBooleanOption("deterministic");
+
+        try {
+            parser.parse(args);
+        } catch (CmdLineParser.OptionException e) {
+            System.out.println(e.getMessage());
+            System.out.println("Parameter: [{-n,--games} anzahl] [--parallel anzahl] [{-a,--a} logic|search]"
+                    + " [{-b,--b} logic|search] [--time millisekunden] [--hash megabytes]"
+                    + " [--deterministic | --seed startwert]");
+            System.exit(2);
+        }
+
+        int games = (Integer) parser.getOptionValue(gamesOption, 100);
+        int parallel = (Integer) parser.getOptionValue(parallelOption, Runtime.getRuntime().availableProcessors());
+        int time = (Integer) parser.getOptionValue(timeOption, (int) TimeBudget.SERVER_LIMIT);
+        int hash = (Integer) parser.getOptionValue(hashOption, 16);
+        String a = (String) parser.getOptionValue(aOption, "search");
+        String b = (String) parser.getOptionValue(bOption, "logic");
+        Long seed = (Long) parser.getOptionValue(seedOption);
+        boolean deterministic = parser.getOptionValue(deterministicOption) == Boolean.TRUE;
+
+        Supplier<MoveSelection> selection = deterministic ? MoveSelection::deterministic
+                : seed != null ? () -> MoveSelection.seeded(seed) : MoveSelection::random;
+
+        // Mit --deterministic sind auch die Startaufstellungen fest
+        Arena arena = new Arena(player(a, hash, selection), player(b, hash, selection), time)
+                .setSeed(deterministic ? Long.valueOf(0) : seed);
+        ArenaResult result = arena.run(games, parallel);
+        log.info("{} gegen {}: {}", a, b, result);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,98 @@
+package sc.player2022.arena;
+
+/**
+ * Zusammengefasste Ergebnisse mehrerer Spiele in der {@link Arena} aus Sicht von Spieler A
+ */
+public class ArenaResult {
+    private int games;
+    private int wins;
+    private int draws;
+    private int losses;
+    private int forfeits;
+
+    private int pointsA;
+    private int pointsB;
+
+    private long movesA;
+    private long movesB;
+    private long millisA;
+    private long millisB;
+    private long maxMillisA;
+    private long maxMillisB;
+
+    void add(GameRecord record) {
+        games++;
+        switch (record.getOutcome()) {
+            case WIN:
+                wins++;
+                break;
+            case DRAW:
+                draws++;
+                break;
+            case LOSS:
+                losses++;
+                break;
+        }
+        if (record.getForfeit() != null) {
+            forfeits++;
+        }
+
+        pointsA += record.getPointsA();
+        pointsB += record.getPointsB();
+        movesA += record.getMovesA();
+        movesB += record.getMovesB();
+        millisA += record.getMillisA();
+        millisB += record.getMillisB();
+        maxMillisA = Math.max(maxMillisA, record.getMaxMillisA());
+        maxMillisB = Math.max(maxMillisB, record.getMaxMillisB());
+    }
+
+    public int getGames() {
+        return games;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getForfeits() {
+        return forfeits;
+    }
+
+    /**
+     * @return Punkte pro Spiel, Sieg 1, Unentschieden 0.5
+     */
+    public double getScore() {
+        return games > 0 ? (wins + 0.5 * draws) / games : 0;
+    }
+
+    /**
+     * @return Durchschnittliche Zeit pro Zug von Spieler A in Millisekunden
+     */
+    public double getAverageMillisA() {
+        return movesA > 0 ? (double) millisA / movesA : 0;
+    }
+
+    /**
+     * @return Durchschnittliche Zeit pro Zug von Spieler B in Millisekunden
+     */
+    public double getAverageMillisB() {
+        return movesB > 0 ? (double) millisB / movesB : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d Spiele: +%d =%d -%d (%.1f%%), davon %d durch Regelverstoß, Bernsteine %d:%d, "
+                        + "Zeit pro Zug A %.0fms (max %dms), B %.0fms (max %dms)",
+                games, wins, draws, losses, getScore() * 100, forfeits, pointsA, pointsB,
+                getAverageMillisA(), maxMillisA, getAverageMillisB(), maxMillisB);
+    }
+}
@@ -0,0 +1,110 @@
+package sc.player2022.arena;
+
+/**
+ * Ergebnis eines Spiels in der {@link Arena} aus Sicht von Spieler A
+ */
+public class GameRecord {
+    public enum Outcome { WIN, DRAW, LOSS }
+
+    /** Startaufstellung von Team ONE von y = 0 bis 7, je ein Buchstabe pro Figur; Team TWO steht gespiegelt */
+    private String start;
+
+    private Outcome outcome;
+    private int pointsA;
+    private int pointsB;
+    private int turns;
+
+    /** Grund, wenn ein Spieler durch einen Regelverstoß verloren hat */
+    private String forfeit;
+
+    private int movesA;
+    private int movesB;
+    private long millisA;
+    private long millisB;
+    private long maxMillisA;
+    private long maxMillisB;
+
+    void setStart(String start) {
+        this.start = start;
+    }
+
+    void addMove(boolean a, long millis) {
+        if (a) {
+            movesA++;
+            millisA += millis;
+            maxMillisA = Math.max(maxMillisA, millis);
+        } else {
+            movesB++;
+            millisB += millis;
+            maxMillisB = Math.max(maxMillisB, millis);
+        }
+    }
+
+    void forfeit(boolean a, String reason) {
+        outcome = a ? Outcome.LOSS : Outcome.WIN;
+        forfeit = (a ? "A: " : "B: ") + reason;
+    }
+
+    void finish(int pointsA, int pointsB, int turns) {
+        this.pointsA = pointsA;
+        this.pointsB = pointsB;
+        this.turns = turns;
+        outcome = pointsA > pointsB ? Outcome.WIN : pointsA < pointsB ? Outcome.LOSS : Outcome.DRAW;
+    }
+
+    public String getStart() {
+        return start;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public int getPointsA() {
+        return pointsA;
+    }
+
+    public int getPointsB() {
+        return pointsB;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    public String getForfeit() {
+        return forfeit;
+    }
+
+    public int getMovesA() {
+        return movesA;
+    }
+
+    public int getMovesB() {
+        return movesB;
+    }
+
+    public long getMillisA() {
+        return millisA;
+    }
+
+    public long getMillisB() {
+        return millisB;
+    }
+
+    public long getMaxMillisA() {
+        return maxMillisA;
+    }
+
+    public long getMaxMillisB() {
+        return maxMillisB;
+    }
+
+    @Override
+    public String toString() {
+        if (forfeit != null) {
+            return outcome + " (" + forfeit + "), Start " + start;
+        }
+        return outcome + " " + pointsA + ":" + pointsB + " nach " + turns + " Zügen, Start " + start;
+    }
+}
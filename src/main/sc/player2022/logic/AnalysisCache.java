@@ -0,0 +1,148 @@
+package sc.player2022.logic;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Zwischenspeicher für die Abfragen aus {@link GameInfo} während eines Zuges. Innerhalb von
+ * {@link Logic#calculateMove()} wird dasselbe Brett oft mehrfach gefragt, etwa nach Gewinnzügen oder sicheren
+ * Schlagzügen in einer Schleife. Die Ergebnisse werden nach Zobrist-Hash des Bretts, {@link AnalysisContext}, Abfrage
+ * und Team gespeichert, ein Speicher kann also von mehreren Kontexten und Threads geteilt werden. Den Hash bringt der
+ * Aufrufer mit, aus dem {@link sc.player2022.logic.bitboard.BitBoard}, das er für die Berechnung ohnehin braucht.
+ * <p>
+ * Gespeichert werden nur Abfragen, die Züge erzeugen oder ausprobieren. Bedrohte oder gedeckte Figuren sind auf dem
+ * BitBoard wenige Bitoperationen und kosten weniger als das Nachschlagen.
+ * <p>
+ * Die {@link Logic} leert den Speicher bei jedem neuen Spielstand. Ist er voll, wird der am längsten nicht benutzte
+ * Eintrag entfernt. Ausgegeben werden immer Kopien, da die Aufrufer die Listen teilweise verändern.
+ */
+public final class AnalysisCache {
+    /** Anzahl der Einträge, wenn nichts anderes angegeben wird */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * Die gespeicherten Abfragen
+     */
+    public enum Query {
+        OWN_MOVES, OPPONENT_MOVES, SAFELY_KILL_MOVES, POINT_MOVES, WINNING_MOVES
+    }
+
+    private final int capacity;
+    private final Map<Key, List<?>> entries;
+
+    private long hits;
+    private long misses;
+
+    public AnalysisCache(int capacity) {
+        this.capacity = capacity;
+        // Zugriffsreihenfolge: der älteste Eintrag ist der am längsten nicht benutzte
+        this.entries = new LinkedHashMap<Key, List<?>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<?>> eldest) {
+                return size() > AnalysisCache.this.capacity;
+            }
+        };
+    }
+
+    public AnalysisCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Gibt das gespeicherte Ergebnis zurück oder berechnet und speichert es.
+     *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
+     * @param hash {@link sc.player2022.logic.bitboard.BitBoard#getHash()} des abgefragten Spielfelds
+     * @param query Die Abfrage
+     * @param own Für das eigene Team?
+     * @param compute Berechnet das Ergebnis, wenn es noch nicht gespeichert ist
+     * @return Eine Kopie des Ergebnisses
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(AnalysisContext ctx, long hash, Query query, boolean own, Supplier<List<T>> compute) {
+        Key key = new Key(hash, ctx.key(), query, own);
+
+        List<T> cached;
+        synchronized (this) {
+            cached = (List<T>) entries.get(key);
+            if (cached != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+
+        if (cached == null) {
+            // Außerhalb der Sperre, die Berechnung fragt selbst wieder den Speicher
+            cached = compute.get();
+            synchronized (this) {
+                entries.put(key, new ArrayList<>(cached));
+            }
+        }
+
+        return new ArrayList<>(cached);
+    }
+
+    /**
+     * Leert den Speicher, die Zähler bleiben erhalten
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized void resetCounters() {
+        hits = 0;
+        misses = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Anteil der Abfragen, die aus dem Speicher beantwortet wurden, zwischen 0 und 1
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total > 0 ? (double) hits / total : 0;
+    }
+
+    private static final class Key {
+        private final long hash;
+        private final int context;
+        private final Query query;
+        private final boolean own;
+
+        Key(long hash, int context, Query query, boolean own) {
+            this.hash = hash;
+            this.context = context;
+            this.query = query;
+            this.own = own;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && context == other.context && query == other.query && own == other.own;
+        }
+
+        @Override
+        public int hashCode() {
+            return (Long.hashCode(hash) * 31 + context) * 31 + query.ordinal() * 2 + (own ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package sc.player2022.logic;
+
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.plugin2022.GameState;
+import sc.plugin2022.Team;
+
+/**
+ * Unveränderlicher Spielstand, auf den sich die Abfragen aus {@link GameInfo} und {@link Bewertung} beziehen: welches
+ * Team "eigen" ist, der Zug und die Bernsteine beider Teams. Das Spielfeld wird den Abfragen jeweils einzeln übergeben.
+ * <p>
+ * Da der Kontext nicht verändert werden kann, können mehrere Analysen gleichzeitig laufen, etwa in verschiedenen
+ * Threads, für verschiedene Spiele oder für einen angenommenen späteren Zug ({@link #withTurn(int)}).
+ */
+public final class AnalysisContext {
+    private final int turn;
+    private final int team;
+    private final int ambersOne;
+    private final int ambersTwo;
+
+    /** Speicher für die Ergebnisse der Abfragen, kann von mehreren Kontexten geteilt werden */
+    private final AnalysisCache cache;
+
+    /** Auswahl in {@link Bewertung#besterZug}, kann von mehreren Kontexten geteilt werden */
+    private final MoveSelection selection;
+
+    /** Messwerte des Zuges, für den analysiert wird */
+    private final MoveMetrics metrics;
+
+    private AnalysisContext(int turn, int ambersOne, int ambersTwo, AnalysisCache cache, MoveSelection selection,
+                            MoveMetrics metrics) {
+        this.turn = turn;
+        this.team = turn % 2;
+        this.ambersOne = ambersOne;
+        this.ambersTwo = ambersTwo;
+        this.cache = cache;
+        this.selection = selection;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param gameState Der Spielstand; das Team am Zug ist das eigene
+     * @param cache Speicher für die Ergebnisse der Abfragen
+     * @param selection Auswahl in {@link Bewertung#besterZug}
+     */
+    public static AnalysisContext of(GameState gameState, AnalysisCache cache, MoveSelection selection) {
+        return new AnalysisContext(gameState.getTurn(), gameState.getPointsForTeam(Team.ONE),
+                gameState.getPointsForTeam(Team.TWO), cache, selection, new MoveMetrics());
+    }
+
+    /**
+     * @param gameState Der Spielstand; das Team am Zug ist das eigene
+     * @param cache Speicher für die Ergebnisse der Abfragen
+     */
+    public static AnalysisContext of(GameState gameState, AnalysisCache cache) {
+        return of(gameState, cache, MoveSelection.random());
+    }
+
+    /**
+     * @param gameState Der Spielstand; das Team am Zug ist das eigene
+     */
+    public static AnalysisContext of(GameState gameState) {
+        return of(gameState, new AnalysisCache());
+    }
+
+    /**
+     * @param turn Ein anderer Zug
+     * @return Den gleichen Kontext für einen anderen Zug, mit gleichen Bernsteinen, Speicher, Auswahl und Messwerten
+     */
+    public AnalysisContext withTurn(int turn) {
+        return new AnalysisContext(turn, ambersOne, ambersTwo, cache, selection, metrics);
+    }
+
+    /**
+     * @param metrics Neue Messwerte, etwa für den nächsten Zug
+     * @return Den gleichen Kontext mit anderen Messwerten
+     */
+    public AnalysisContext withMetrics(MoveMetrics metrics) {
+        return new AnalysisContext(turn, ambersOne, ambersTwo, cache, selection, metrics);
+    }
+
+    /**
+     * @param selection Eine andere Auswahl, etwa deterministisch für eine Bewertung, die keine Zufallszahlen verbrauchen
+     *                  soll
+     * @return Den gleichen Kontext mit anderer Auswahl
+     */
+    public AnalysisContext withSelection(MoveSelection selection) {
+        return new AnalysisContext(turn, ambersOne, ambersTwo, cache, selection, metrics);
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * @param own true für das eigene Team, false für das gegnerische
+     * @return Der Index des Teams, wie er im {@link BitBoard} verwendet wird
+     */
+    public int teamIndex(boolean own) {
+        return own ? team : 1 - team;
+    }
+
+    /**
+     * @param own true für das eigene Team, false für das gegnerische
+     */
+    public Team getTeam(boolean own) {
+        return BitBoard.teamOf(teamIndex(own));
+    }
+
+    /**
+     * @param own true für das eigene Team, false für das gegnerische
+     * @return Die Bernsteine des Teams
+     */
+    public int getPoints(boolean own) {
+        return teamIndex(own) == 0 ? ambersOne : ambersTwo;
+    }
+
+    public AnalysisCache getCache() {
+        return cache;
+    }
+
+    public MoveSelection getSelection() {
+        return selection;
+    }
+
+    public MoveMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return Ein Wert, der den Kontext für den {@link AnalysisCache} eindeutig beschreibt
+     */
+    int key() {
+        return turn << 16 | ambersOne << 8 | ambersTwo;
+    }
+
+    @Override
+    public String toString() {
+        return "AnalysisContext{turn=" + turn + ", team=" + getTeam(true) + ", ambers=" + ambersOne + ":" + ambersTwo + "}";
+    }
+}
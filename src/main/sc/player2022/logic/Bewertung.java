@@ -1,16 +1,35 @@
 package sc.player2022.logic;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sc.player2022.logic.bitboard.AttackMap;
+import sc.player2022.logic.bitboard.BitBoard;
 import sc.plugin2022.*;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class Bewertung {
-    private static GameState gameState;
+    private static final Logger log = LoggerFactory.getLogger(Bewertung.class);
 
-    public static void setGameState(GameState gameState) {
-        Bewertung.gameState = gameState;
+    /** Wert eines Bernsteins in {@link #bewerte(AttackMap, int)} */
+    public static final int AMBER_WERT = 100;
+
+    /** Zusätzlicher Wert eines Turms, er ist nur noch einen Schlag von einem Bernstein entfernt */
+    public static final int TURM_WERT = 8;
+
+    /** {@link #pieceValue(int, int, int)} für jeden Typ, jedes Team und jedes Feld */
+    private static final int[] PIECE_VALUES = new int[PieceType.values().length * 2 * 64];
+
+    static {
+        for (int type = 0; type < PieceType.values().length; type++) {
+            for (int team = 0; team < 2; team++) {
+                for (int sq = 0; sq < 64; sq++) {
+                    PIECE_VALUES[(type * 2 + team) * 64 + sq] = (int) pieceValue(type, team, sq);
+                }
+            }
+        }
     }
 
     /**
@@ -20,11 +39,23 @@ public class Bewertung {
      * @return Den Wert der Figur
      */
     public static double pieceValue(Board b, Coordinates piece) {
-        double value = 0;
         Piece p = b.get(piece);
+        return pieceValue(p.getType().ordinal(), p.getTeam().getIndex(), BitBoard.square(piece));
+    }
+
+    /**
+     * gibt Value einer Figur zurück wie {@link #pieceValue(Board, Coordinates)}, aber ohne Spielfeld
+     * @param type {@link PieceType#ordinal()} der Figur
+     * @param team Index des Teams der Figur
+     * @param sq Feld der Figur im {@link BitBoard}
+     * @return Den Wert der Figur
+     */
+    public static double pieceValue(int type, int team, int sq) {
+        double value = 0;
+        PieceType pieceType = PieceType.values()[type];
 
         // Typ; max. 3
-        switch (p.getType()){
+        switch (pieceType){
             case Robbe:
                 value = 3;
                 break;
@@ -38,8 +69,44 @@ public class Bewertung {
         }
 
         // Entfernung von der Startlinie, außer bei Robbe; max. 7
-        if(p.getType() != PieceType.Robbe){
-            value += p.getTeam().getIndex() == 1 ? piece.getX() : (7 - piece.getX());
+        if(pieceType != PieceType.Robbe){
+            value += team == 1 ? BitBoard.x(sq) : (7 - BitBoard.x(sq));
+        }
+
+        return value;
+    }
+
+    /**
+     * Wie {@link #pieceValue(int, int, int)}, aber aus einer Tabelle, für die Schleifen der Suche und der Bewertung
+     */
+    public static int pieceValueLookup(int type, int team, int sq) {
+        return PIECE_VALUES[(type * 2 + team) * 64 + sq];
+    }
+
+    /**
+     * Statische Bewertung einer Stellung für die Suche. Kriterien: Bernsteine, Piecevalue und Türme aller Figuren,
+     * gedeckte und bedrohte Figuren
+     * @param map Die Stellung mit ihrer Bedrohungskarte
+     * @param team Index des Teams, aus dessen Sicht bewertet wird
+     * @return Positiv, wenn das Team besser steht, negativ, wenn der Gegner besser steht
+     */
+    public static int bewerte(AttackMap map, int team) {
+        BitBoard b = map.getBoard();
+        int value = 0;
+
+        for (int t = 0; t < 2; t++) {
+            int teamValue = AMBER_WERT * b.getAmbers(t);
+
+            for (long pieces = b.getTeam(t); pieces != 0; pieces &= pieces - 1) {
+                int sq = Long.numberOfTrailingZeros(pieces);
+                teamValue += pieceValueLookup(b.type(sq), t, sq);
+                if (b.isTower(sq)) {
+                    teamValue += TURM_WERT;
+                }
+            }
+
+            teamValue += Long.bitCount(map.gedeckt(t)) - 2 * Long.bitCount(map.bedroht(t));
+            value += t == team ? teamValue : -teamValue;
         }
 
         return value;
@@ -50,39 +117,55 @@ public class Bewertung {
      * etwa gleichwertigen Zügen zu entscheiden
      * Kriterien: Piecevalue, Erhöhung der Anzahl der eigenen gedeckten Figuren, Erhöhung der Anzahl der gegnerischen
      * bedrohten Figuren, Ziehen nach vorne
+     * @param ctx Der Spielstand, auf den sich die Bewertung bezieht
      * @param moves Eine Liste von zu überprüfenden Zügen
-     * @return Den besten Zug aus der Liste
+     * @return Den besten Zug aus der Liste, ausgewählt nach {@link AnalysisContext#getSelection()}
      */
-    public static Move besterZug(Board b, List<Move> moves){
+    public static Move besterZug(AnalysisContext ctx, Board b, List<Move> moves){
+        long start = System.nanoTime();
         // Züge mit Bewertung
-        Map<Move, Double> moveRating = new HashMap<>();
+        Map<Move, Double> moveRating = new LinkedHashMap<>();
         double total = 0;
+        // Bedrohte und gedeckte Figuren werden bei jedem Zug nur für die beteiligten Felder aktualisiert
+        IncrementalEvaluation eval = new IncrementalEvaluation(BitBoard.of(b));
+        int own = ctx.teamIndex(true);
+        int opponentPoints = ctx.getPoints(false);
+
+        int bedrohtOpponent = eval.bedrohtCount(1 - own);
+        int bedrohtOwn = eval.bedrohtCount(own);
+        int gedecktOwn = eval.gedecktCount(own);
 
         for(Move m : moves){
             double value = 0;
             Piece p = b.get(m.getFrom());
+            int from = BitBoard.square(m.getFrom());
+            int to = BitBoard.square(m.getTo());
 
             // Piece Value
             value += pieceValue(b, m.getFrom());
 
+            int undo = eval.make(from, to);
+
             //Erhöhung der bedrohten Figuren des Gegners
-            value += GameInfo.bedrohtDifferenceAfterMove(b, m, false);
+            value += eval.bedrohtCount(1 - own) - bedrohtOpponent;
 
             //Verringerung der bedrohten eigenen Figuren
-            value -= GameInfo.bedrohtDifferenceAfterMove(b, m, true);
+            value -= eval.bedrohtCount(own) - bedrohtOwn;
 
             //Erhöhung der eigenen gedeckten Figuren
-            value += GameInfo.gedecktDifferenceAfterMove(b, m, true);
+            value += eval.gedecktCount(own) - gedecktOwn;
+
+            // Kann der Gegner nach dem Move das Spiel gewinnen? Dann auf keinen Fall diesen Move nehmen
+            boolean gegnerGewinnt = opponentPoints >= 2 || (opponentPoints == 1 && eval.canScore(1 - own));
+
+            eval.unmake(from, to, undo);
 
             // Ziehen nach vorne: Unterschied der x-Koordinate vor und nach dem Zug, außer bei Robben
             if(p.getType() != PieceType.Robbe){
                 value += (m.getDelta().getDx() * (p.getTeam().getIndex() == 0 ? 1 : -1)) * 3;
             }
 
-            // Kann der Gegner nach dem Move das Spiel gewinnen? Dann auf keinen Fall diesen Move nehmen
-            Board sim = b.clone();
-            sim.movePiece(m);
-            if(!GameInfo.getWinningMoves(b, false).isEmpty()){
+            if(gegnerGewinnt){
                 value = 0;
             }
 
@@ -90,20 +173,10 @@ public class Bewertung {
             total += value;
         }
 
-        // Je größer die Bewertung, desto größer die Wahrscheinlichkeit, dass der Zug gewählt wird
-        double rand = Math.random() * total;
-        Move out = moves.get(0);
-
-        double sum = 0;
-        for(Move m : moveRating.keySet()){
-            sum += moveRating.get(m);
-            if(sum >= rand){
-                out = m;
-                break;
-            }
-        }
+        Move out = ctx.getSelection().select(moveRating, total, moves.get(0));
 
-        System.out.println("Bewertung: " + moveRating);
+        log.debug("Bewertung: {}", moveRating);
+        ctx.getMetrics().add(MoveMetrics.Phase.BESTER_ZUG, start);
         return out;
     }
 }
@@ -0,0 +1,93 @@
+package sc.player2022.logic;
+
+import sc.player2022.logic.bitboard.AttackMap;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.plugin2022.Move;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Prüft alle Kandidatenzüge einer Heuristik in {@link Logic}. Die Prüfungen sind voneinander unabhängig und werden mit
+ * einem {@link ForkJoinPool} auf mehrere Kerne verteilt. Die Ergebnisse stehen in der Reihenfolge der Züge, ausgewertet
+ * wird danach wie bisher in einer einfachen Schleife; das Ergebnis ist also dasselbe wie ohne Parallelisierung.
+ * <p>
+ * Jede Teilaufgabe prüft ihre Züge auf einer eigenen {@link AttackMap} mit einer Kopie des Bretts, die sie mit
+ * make/unmake wiederverwendet. Die Kopie gehört nur zu diesem Aufruf, in den Threads des Pools bleibt danach nichts
+ * zurück.
+ */
+final class CandidateScan {
+    /** Kleinere Teile werden nicht weiter aufgeteilt */
+    private static final int THRESHOLD = 2;
+
+    private CandidateScan() {
+    }
+
+    /**
+     * @param pool Die Threads für die Prüfung oder null, um im aufrufenden Thread zu prüfen
+     * @param board Das Brett, auf dem geprüft wird; wird nicht verändert
+     * @param moves Die Kandidatenzüge; werden während der Prüfung nicht verändert
+     * @param zeit Vor jeder Prüfung wird die Zeit geprüft
+     * @param check Die Prüfung auf einer Kopie des Bretts, die danach wieder im Ausgangszustand sein muss; darf sonst
+     *              nur lesend auf gemeinsame Daten zugreifen
+     * @return Das Ergebnis der Prüfung für jeden Zug, in der Reihenfolge der Züge
+     */
+    static int[] scan(ForkJoinPool pool, BitBoard board, List<Move> moves, TimeBudget zeit,
+                      ToIntBiFunction<AttackMap, Move> check) {
+        int[] out = new int[moves.size()];
+        if (out.length == 0) {
+            return out;
+        }
+
+        // Etwa zwei Teilaufgaben pro Thread, damit nicht für jeden Zug eine eigene Kopie gebraucht wird
+        int threshold = pool == null ? out.length : Math.max(THRESHOLD, out.length / (2 * pool.getParallelism()));
+        Task task = new Task(board, moves, zeit, check, out, 0, out.length, threshold);
+        if (pool == null) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return out;
+    }
+
+    private static final class Task extends RecursiveAction {
+        private final BitBoard board;
+        private final List<Move> moves;
+        private final TimeBudget zeit;
+        private final ToIntBiFunction<AttackMap, Move> check;
+        private final int[] out;
+        private final int start;
+        private final int end;
+        private final int threshold;
+
+        Task(BitBoard board, List<Move> moves, TimeBudget zeit, ToIntBiFunction<AttackMap, Move> check, int[] out,
+             int start, int end, int threshold) {
+            this.board = board;
+            this.moves = moves;
+            this.zeit = zeit;
+            this.check = check;
+            this.out = out;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= threshold || getPool() == null) {
+                AttackMap sim = new AttackMap(board.copy());
+                for (int i = start; i < end; i++) {
+                    zeit.check();
+                    out[i] = check.applyAsInt(sim, moves.get(i));
+                }
+                return;
+            }
+
+            int mid = (start + end) >>> 1;
+            invokeAll(new Task(board, moves, zeit, check, out, start, mid, threshold),
+                    new Task(board, moves, zeit, check, out, mid, end, threshold));
+        }
+    }
+}
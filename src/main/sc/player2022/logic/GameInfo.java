@@ -1,22 +1,35 @@
 package sc.player2022.logic;
 
-import sc.api.plugins.ITeam;
-import sc.plugin2022.Vector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sc.player2022.logic.AnalysisCache.Query;
+import sc.player2022.logic.bitboard.AttackMap;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.player2022.logic.bitboard.MoveGenerator;
+import sc.player2022.logic.bitboard.MoveList;
+import sc.player2022.logic.bitboard.SquareSet;
 import sc.plugin2022.*;
 
 import java.util.*;
 import java.util.List;
 
 /**
- * Methoden, die wichtige Informationen über das aktuelle Spiel bereitstellen
+ * Methoden, die wichtige Informationen über das aktuelle Spiel bereitstellen. Alles, was vom Spielstand abhängt
+ * (eigenes Team, Zug, Punkte), kommt aus dem übergebenen {@link AnalysisContext}.
+ * <p>
+ * Die häufig gebrauchten Abfragen gibt es zusätzlich für ein {@link BitBoard}: Felder sind dort Indizes 0-63, Mengen von
+ * Feldern Masken nach {@link SquareSet} und Züge eine {@link MoveList}. Damit ist jede Prüfung, ob ein Feld oder Zug
+ * enthalten ist, ein Bit-Test, und es entstehen keine Objekte pro Feld oder Zug.
+ * <p>
+ * Die Methoden für ein {@link Board} bleiben für einzelne Abfragen und ältere Aufrufer erhalten, wandeln aber bei jedem
+ * Aufruf das Brett neu um. In Schleifen über Züge wird einmal ein BitBoard oder eine {@link AttackMap} erstellt und
+ * jeder Zug darauf mit make/unmake geprüft; dafür gibt es die Varianten mit Feldern als Index.
  */
 
 public class GameInfo {
-    private static GameState gameState;
+    private static final Logger log = LoggerFactory.getLogger(GameInfo.class);
 
-    public static void setGameState(GameState gameState) {
-        GameInfo.gameState = gameState;
-    }
+    private static final int ROBBE = PieceType.Robbe.ordinal();
 
     // -------------------------------------------------
     // Methoden zum aktuellen Spielstand (Figuren, Züge)
@@ -26,11 +39,12 @@ public class GameInfo {
      * Gibt zurück, ob sich auf einem Brett an einer Koordinate eine eigene Figur befindet. Darf nicht in anderen
      * Methoden benutzt werden, wenn diese auch Koordinaten annehmen können, an denen keine Figur steht!
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Brett, für das überprüft werden soll
      * @param piece Koordinate, die überprüft werden soll
      */
-    public static boolean isOwn(Board b, Coordinates piece) {
-        return b.get(piece).getTeam().equals(gameState.getCurrentTeam());
+    public static boolean isOwn(AnalysisContext ctx, Board b, Coordinates piece) {
+        return b.get(piece).getTeam().equals(ctx.getTeam(true));
     }
 
     /**
@@ -50,50 +64,90 @@ public class GameInfo {
     /**
      * Gibt zurück, ob sich auf einem Brett an einer Koordinate eine gegnerische Figur befindet.
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Brett, für das überprüft werden soll
      * @param piece Koordinate, die überprüft werden soll
      */
-    public static boolean isOpponent(Board b, Coordinates piece) {
+    public static boolean isOpponent(AnalysisContext ctx, Board b, Coordinates piece) {
         try {
-            return b.get(piece).getTeam().equals(gameState.getOtherTeam());
+            return b.get(piece).getTeam().equals(ctx.getTeam(false));
         } catch (NullPointerException e) {
             return false;
         }
     }
 
     /**
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @return Alle möglichen eigenen Züge auf dem angegebenen Spielfeld
      */
-    public static List<Move> getOwnMoves(Board b) {
-        return new GameState(b, gameState.getTurn()).getPossibleMoves();
+    public static List<Move> getOwnMoves(AnalysisContext ctx, Board b) {
+        BitBoard bits = BitBoard.of(b);
+        return ctx.getCache().get(ctx, bits.getHash(), Query.OWN_MOVES, true, () -> generateMoves(ctx, bits, true).toMoves());
     }
 
     /**
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @return Alle möglichen Züge des Gegners auf dem angegebenen Spielfeld
      */
-    public static List<Move> getOpponentMoves(Board b) {
-        return new GameState(b, gameState.getTurn() - 1).getPossibleMoves();
+    public static List<Move> getOpponentMoves(AnalysisContext ctx, Board b) {
+        BitBoard bits = BitBoard.of(b);
+        return ctx.getCache().get(ctx, bits.getHash(), Query.OPPONENT_MOVES, false, () -> generateMoves(ctx, bits, false).toMoves());
+    }
+
+    /**
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
+     * @param b Ein beliebiges Spielfeld
+     * @return Alle möglichen eigenen Züge, in derselben Reihenfolge wie {@link #getOwnMoves(AnalysisContext, Board)}
+     */
+    public static MoveList getOwnMoves(AnalysisContext ctx, BitBoard b) {
+        return generateMoves(ctx, b, true);
+    }
+
+    /**
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
+     * @param b Ein beliebiges Spielfeld
+     * @return Alle möglichen Züge des Gegners
+     */
+    public static MoveList getOpponentMoves(AnalysisContext ctx, BitBoard b) {
+        return generateMoves(ctx, b, false);
+    }
+
+    private static MoveList generateMoves(AnalysisContext ctx, BitBoard b, boolean own) {
+        ctx.getMetrics().moveGeneration();
+        MoveList out = new MoveList();
+        MoveGenerator.generate(b, ctx.teamIndex(own), out);
+        return out;
+    }
+
+    /**
+     * Kopiert ein Spielfeld, um darauf Züge zu simulieren, und zählt die Kopie in den {@link MoveMetrics}
+     */
+    static Board copy(AnalysisContext ctx, Board b) {
+        ctx.getMetrics().boardClone();
+        return b.clone();
     }
 
     /**
      * Gibt, im Gegensatz zur Methode "getCurrentPieces" aus der Klasse GameState, die Koordinaten und Figuren des
      * eigenen Teams auf einem beliebigen Spielfeld zurück.
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @return eine Map mit den Koordinaten und Figuren des eigenen Teams.
      */
-    public static Map<Coordinates, Piece> getOwnPieces(Board b) {
-        return new GameState(b, gameState.getTurn()).getCurrentPieces();
+    public static Map<Coordinates, Piece> getOwnPieces(AnalysisContext ctx, Board b) {
+        return new GameState(b, ctx.getTurn()).getCurrentPieces();
     }
 
     /**
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @return eine Map mit den Koordinaten und Figuren des gegnerischen Teams.
      */
-    public static Map<Coordinates, Piece> getOpponentPieces(Board b) {
-        return new GameState(b, gameState.getTurn() - 1).getCurrentPieces();
+    public static Map<Coordinates, Piece> getOpponentPieces(AnalysisContext ctx, Board b) {
+        return new GameState(b, ctx.getTurn() - 1).getCurrentPieces();
     }
 
     // --------------------------------------------------------------------
@@ -105,13 +159,11 @@ public class GameInfo {
      * @return Eine Liste mit Zügen, die die Figur an den angegebenen Koordinaten ausführen kann
      */
     public static List<Move> getMovesFrom(Board b, Coordinates piece) {
-        List<Move> moves = isOwn(b, piece) ? getOwnMoves(b) : getOpponentMoves(b);
+        int from = BitBoard.square(piece);
         List<Move> out = new ArrayList<>();
 
-        for (Move m : moves) {
-            if (m.getFrom().equals(piece)) {
-                out.add(m);
-            }
+        for (Coordinates to : BitBoard.toCoordinates(BitBoard.of(b).targets(from))) {
+            out.add(new Move(piece, to));
         }
 
         return out;
@@ -119,12 +171,13 @@ public class GameInfo {
 
     /**
      * Gibt zurück, ob eine Koordinate gedeckt ist.
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param c Die zu überprüfende Koordinate
      * @return ob die Figur an der Koordinate gedeckt ist.
      */
-    public static boolean isGedeckt(Board b, Coordinates c, boolean own) {
-        return !getWirdGedecktVon(b, c, own).isEmpty();
+    public static boolean isGedeckt(AnalysisContext ctx, Board b, Coordinates c, boolean own) {
+        return BitBoard.of(b).isGedeckt(BitBoard.square(c), ctx.teamIndex(own));
     }
 
     /**
@@ -134,47 +187,27 @@ public class GameInfo {
      * @return Eine Liste von Koordinaten, an denen auch eigene Figuren stehen, die von der angegebenen Figur gedeckt werden
      */
     public static List<Coordinates> getDeckt(Board b, Coordinates piece) {
-        List<Coordinates> out = new ArrayList<>();
-
-        Map<Coordinates, Piece> pieces = isOwn(b, piece) ? getOwnPieces(b) : getOpponentPieces(b);
-
-        for (Vector v : b.get(piece).getPossibleMoves()) {
-            Coordinates to = piece.plus(v);
-            if (pieces.containsKey(to)) {
-                out.add(to);
-            }
-        }
-
-        return out;
+        BitBoard bb = BitBoard.of(b);
+        int sq = BitBoard.square(piece);
+        return BitBoard.toCoordinates(bb.span(sq) & bb.getTeam(bb.team(sq)));
     }
 
     /**
      * Gibt die Figuren zurück, von denen die angegebene Koordinate gedeckt wird
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param c Die zu überprüfende Koordinate
      * @return Eine Liste mit Figuren, von denen die angegebene Koordinate gedeckt wird
      */
-    public static List<Coordinates> getWirdGedecktVon(Board b, Coordinates c, boolean own) {
-        Map<Coordinates, Piece> pieces = own ? getOwnPieces(b) : getOpponentPieces(b);
+    public static List<Coordinates> getWirdGedecktVon(AnalysisContext ctx, Board b, Coordinates c, boolean own) {
+        BitBoard bb = BitBoard.of(b);
+        int sq = BitBoard.square(c);
 
-        List<Coordinates> out = new ArrayList<>();
-
-        if (!isTower(b, c)) {
-            for (Coordinates current : pieces.keySet()) {
-                for (Vector v : pieces.get(current).getPossibleMoves()) {
-                    if (current.plus(v).equals(c)) {
-                        //System.out.println(c + " ist gedeckt von der Figur bei " + current);
-                        out.add(current);
-                    }
-                }
-            }
+        if (bb.isTower(sq)) {
+            return new ArrayList<>();
         }
 
-        if (out.size() == 0) {
-            //System.out.println("Die Figur bei " + c + " ist nicht gedeckt");
-        }
-
-        return out;
+        return BitBoard.toCoordinates(bb.attackers(sq, ctx.teamIndex(own)));
     }
 
     /**
@@ -185,64 +218,66 @@ public class GameInfo {
      * @return Ob die Koordinate durch den Zug gedeckt wird
      */
     public static boolean isGedecktAfterMove(Board b, Coordinates c, Move m){
-        Board sim = b.clone();
-        sim.movePiece(m);
-        return isGedeckt(sim, c, isOwn(b, m.getFrom()));
+        BitBoard sim = BitBoard.of(b);
+        int from = BitBoard.square(m.getFrom());
+        int team = sim.team(from);
+        sim.make(from, BitBoard.square(m.getTo()));
+        return sim.isGedeckt(BitBoard.square(c), team);
     }
 
     /**
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b   Ein beliebiges Spielfeld
      * @param own true für das eigene Team, false für das gegnerische
      * @return Eine Liste von Koordinaten von allen gedeckten Figuren des angegebenen Teams
      */
-    public static List<Coordinates> gedeckteFiguren(Board b, boolean own) {
-        Set<Coordinates> pieces = (own ? getOwnPieces(b) : getOpponentPieces(b)).keySet();
-        List<Coordinates> out = new ArrayList<>();
-
-        for (Coordinates c : pieces) {
-            if (isGedeckt(b, c, own)) {
-                out.add(c);
-            }
-        }
+    public static List<Coordinates> gedeckteFiguren(AnalysisContext ctx, Board b, boolean own) {
+        return BitBoard.toCoordinates(gedeckteFiguren(ctx, BitBoard.of(b), own));
+    }
 
-        return out;
+    /**
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
+     * @param b   Ein beliebiges Spielfeld
+     * @param own true für das eigene Team, false für das gegnerische
+     * @return Die Felder aller gedeckten Figuren des angegebenen Teams
+     */
+    public static long gedeckteFiguren(AnalysisContext ctx, BitBoard b, boolean own) {
+        return b.gedeckt(ctx.teamIndex(own));
     }
 
     /**
      * Gibt die Differenz der gedeckten Figuren nach einem Zug zurück
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param m Der zu überprüfende Zug
      * @param own Eigenes Team?
      * @return Negativ: weniger gedeckte Figuren als vorher, positiv: mehr
      */
-    public static int gedecktDifferenceAfterMove(Board b, Move m, boolean own) {
-        Board c = b.clone();
-        c.movePiece(m);
-        return gedeckteFiguren(c, own).size() - gedeckteFiguren(b, own).size();
+    public static int gedecktDifferenceAfterMove(AnalysisContext ctx, Board b, Move m, boolean own) {
+        return new AttackMap(BitBoard.of(b)).gedecktDifference(BitBoard.square(m.getFrom()), BitBoard.square(m.getTo()), ctx.teamIndex(own));
     }
 
     /**
      * Gibt zurück, ob eine Koordinate geschlagen werden kann, unabhängig davon, ob sie gedeckt ist
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param c Die zu überprüfende Koordinate
      * @return boolean, kann sie geschlagen werden, unabhängig von Kontermöglichkeit
      */
-    public static boolean isAttackable(Board b, Coordinates c, boolean own) {
-        List<Move> moves = own ? getOpponentMoves(b) : getOwnMoves(b);
-
-        for (Move m : moves) {
-            if (c.equals(m.getTo())) {
-                return true;
-            }
-        }
+    public static boolean isAttackable(AnalysisContext ctx, Board b, Coordinates c, boolean own) {
+        BitBoard bb = BitBoard.of(b);
+        int sq = BitBoard.square(c);
+        int other = 1 - ctx.teamIndex(own);
 
-        return false;
+        // Auf Felder mit eigenen Figuren kann der Gegner nicht ziehen
+        return bb.team(sq) != other && bb.attackers(sq, other) != 0;
     }
 
     /**
      * Gibt als boolean zurück, ob eine eingegebene Koordinate von einem Gegner bedroht ist, außer wenn sie gedeckt ist
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b     Ein beliebiges Spielfeld
      * @param c die zu überprüfende Koordinate
      * @param own Ob für das eigene oder das gegnerische Team überprüft werden soll. Das ist notwendig, damit auch
@@ -250,30 +285,28 @@ public class GameInfo {
      *            werden kann
      * @return boolean
      */
-    public static boolean isBedroht(Board b, Coordinates c, boolean own) {
-        List<Move> moves = own ? getOpponentMoves(b) : getOwnMoves(b);
-
-        for (Move m : moves) {
-            // Schlägt der Move und ist die Figur am Ziel nicht gedeckt ODER schlägt der Move und die gegnerische Figur
-            // ist ein Turm?
-            if (c.equals(m.getTo()) && (!isGedeckt(b, c, own) || isTower(b, m.getFrom()))) {
-                //System.out.println("isBedroht: " + c + " ist bedroht");
-                return true;
-            }
-        }
+    public static boolean isBedroht(AnalysisContext ctx, Board b, Coordinates c, boolean own) {
+        // Kann der Gegner auf das Feld ziehen und ist es nicht gedeckt ODER kann ein gegnerischer Turm dorthin ziehen?
+        return isBedroht(ctx, BitBoard.of(b), BitBoard.square(c), own);
+    }
 
-        //System.out.println("isBedroht: " + c + " ist nicht bedroht");
-        return false;
+    /**
+     * Wie {@link #isBedroht(AnalysisContext, Board, Coordinates, boolean)}, aber für ein Feld als Index
+     */
+    public static boolean isBedroht(AnalysisContext ctx, BitBoard b, int sq, boolean own) {
+        ctx.getMetrics().bedrohtCall();
+        return b.isBedroht(sq, ctx.teamIndex(own));
     }
 
     /**
      * Ist die angegebene Koordinate bedroht und befindet sich an dieser eine Figur des eigenen Teams?
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b
      * @param piece
      */
-    public static boolean isBedrohtPiece(Board b, Coordinates piece, boolean own){
+    public static boolean isBedrohtPiece(AnalysisContext ctx, Board b, Coordinates piece, boolean own){
         try{
-            return isBedroht(b, piece, own) && b.get(piece).getTeam().equals(own ? gameState.getCurrentTeam() : gameState.getOtherTeam());
+            return isBedroht(ctx, b, piece, own) && b.get(piece).getTeam().equals(own ? ctx.getTeam(true) : ctx.getTeam(false));
         } catch (NullPointerException e){
             return false;
         }
@@ -283,15 +316,16 @@ public class GameInfo {
      * Gibt die Figuren zurück, die von der eingegebenen Figur bedroht werden, außer natürlich gedeckte Figuren die sie
      * theoretisch schlagen könnte
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b     Ein beliebiges Spielfeld
      * @param piece Die zu überprüfende Figur
      * @return List<Coordinates>
      */
-    public static List<Coordinates> getBedroht(Board b, Coordinates piece) {
+    public static List<Coordinates> getBedroht(AnalysisContext ctx, Board b, Coordinates piece) {
         List<Coordinates> out = new ArrayList<>();
 
         for (Move m : getMovesFrom(b, piece)) {
-            if (isBedrohtPiece(b, m.getTo(), !isOwn(b, piece))) {
+            if (isBedrohtPiece(ctx, b, m.getTo(), !isOwn(ctx, b, piece))) {
                 out.add(m.getTo());
             }
         }
@@ -302,23 +336,21 @@ public class GameInfo {
     /**
      * Gibt eine Liste der Figuren zurück, von denen die angegebene Koordinate bedroht wird
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b     Ein beliebiges Spielfeld
      * @param c Die zu überprüfende Koordinate
      * @return Coordinates
      */
-    public static List<Coordinates> getWirdBedrohtVon(Board b, Coordinates c, boolean own) {
-        List<Coordinates> out = new ArrayList<>();
-        List<Move> moves = own ? getOpponentMoves(b) : getOwnMoves(b);
+    public static List<Coordinates> getWirdBedrohtVon(AnalysisContext ctx, Board b, Coordinates c, boolean own) {
+        BitBoard bb = BitBoard.of(b);
+        int sq = BitBoard.square(c);
+        int team = ctx.teamIndex(own);
 
-        if (isBedroht(b, c, own)) {
-            for (Move m : moves) {
-                if (c.equals(m.getTo())) {
-                    out.add(m.getFrom());
-                }
-            }
+        if (!bb.isBedroht(sq, team)) {
+            return new ArrayList<>();
         }
 
-        return out;
+        return BitBoard.toCoordinates(bb.attackers(sq, 1 - team));
     }
 
     /**
@@ -329,78 +361,119 @@ public class GameInfo {
      * @return boolean
      */
     public static boolean isBedrohtAfterMove(Board b, Move move) {
-        Board sim = b.clone();
-        sim.movePiece(move);
-        return isBedroht(sim, move.getTo(), isOwn(b, move.getFrom()));
+        return isBedrohtAfterMove(BitBoard.of(b), BitBoard.square(move.getFrom()), BitBoard.square(move.getTo()));
+    }
+
+    /**
+     * Wie {@link #isBedrohtAfterMove(Board, Move)}
+     *
+     * @param b Ein beliebiges Spielfeld; wird für die Prüfung nur vorübergehend verändert
+     */
+    public static boolean isBedrohtAfterMove(BitBoard b, int from, int to) {
+        int team = b.team(from);
+        int undo = b.make(from, to);
+        boolean bedroht = b.isBedroht(to, team);
+        b.unmake(from, to, undo);
+        return bedroht;
     }
 
     /**
      * gibt bedrohte figuren eines angegebenen Teams zurück
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b   Ein beliebiges Spielfeld
      * @param own true for own false for enemy
      * @return Eine Liste mit den Koordinaten von allen bedrohten Figuren
      */
-    public static List<Coordinates> bedrohteFiguren(Board b, boolean own) {
-        Set<Coordinates> pieces = (own ? getOwnPieces(b) : getOpponentPieces(b)).keySet();
-        List<Coordinates> out = new ArrayList<>();
-
-        for (Coordinates c : pieces) {
-            if (isBedroht(b, c, own)) {
-                out.add(c);
-            }
-        }
+    public static List<Coordinates> bedrohteFiguren(AnalysisContext ctx, Board b, boolean own) {
+        return BitBoard.toCoordinates(bedrohteFiguren(ctx, BitBoard.of(b), own));
+    }
 
-        //System.out.println("bedrohteFiguren: " + out);
-        return out;
+    /**
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
+     * @param b   Ein beliebiges Spielfeld
+     * @param own true for own false for enemy
+     * @return Die Felder aller bedrohten Figuren
+     */
+    public static long bedrohteFiguren(AnalysisContext ctx, BitBoard b, boolean own) {
+        return b.bedroht(ctx.teamIndex(own));
     }
 
     /**
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b
      * @param own
      * @return
      */
-    public static List<Coordinates> bedrohteTower(Board b, boolean own){
-        List<Coordinates> out = new ArrayList<>();
-        for(Coordinates piece : bedrohteFiguren(b, own)){
-            if(isTower(b, piece)){
-                out.add(piece);
-            }
-        }
+    public static List<Coordinates> bedrohteTower(AnalysisContext ctx, Board b, boolean own){
+        return BitBoard.toCoordinates(bedrohteTower(ctx, BitBoard.of(b), own));
+    }
 
-        return out;
+    /**
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
+     * @param b Ein beliebiges Spielfeld
+     * @param own Eigenes Team?
+     * @return Die Felder aller bedrohten Türme des Teams
+     */
+    public static long bedrohteTower(AnalysisContext ctx, BitBoard b, boolean own){
+        return bedrohteFiguren(ctx, b, own) & b.getTowers();
     }
 
     /**
      * gibt als int die differenz der bedrohten Figuren nach einem Zug zurück, negativ, wenn weniger, positiv, wenn mehr
      * und null, wenn gleich bleibt
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b    Ein beliebiges Spielfeld
      * @param move Der zu überprüfende Zug
      * @param own  true for own false for enemy
      * @return +-0 int
      */
-    public static int bedrohtDifferenceAfterMove(Board b, Move move, boolean own) {
-        Board c = b.clone();
-        c.movePiece(move);
-        return bedrohteFiguren(c, own).size() - bedrohteFiguren(b, own).size();
+    public static int bedrohtDifferenceAfterMove(AnalysisContext ctx, Board b, Move move, boolean own) {
+        return bedrohtDifferenceAfterMove(ctx, new AttackMap(BitBoard.of(b)), BitBoard.square(move.getFrom()),
+                BitBoard.square(move.getTo()), own);
+    }
+
+    /**
+     * Wie {@link #bedrohtDifferenceAfterMove(AnalysisContext, Board, Move, boolean)}
+     *
+     * @param map Ein beliebiges Spielfeld; wird für die Prüfung nur vorübergehend verändert
+     */
+    public static int bedrohtDifferenceAfterMove(AnalysisContext ctx, AttackMap map, int from, int to, boolean own) {
+        return map.bedrohtDifference(from, to, ctx.teamIndex(own));
     }
 
     /**
      * Alle Figuren eines Teams, die jemanden bedrohen
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param own true für eigenes Team, false für gegnerisches Team
      * @return List
      */
-    public static List<Coordinates> bedrohendeFiguren(Board b, boolean own) {
-        Set<Coordinates> pieces = (own ? getOwnPieces(b) : getOpponentPieces(b)).keySet();
-        List<Coordinates> out = new ArrayList<>();
+    public static List<Coordinates> bedrohendeFiguren(AnalysisContext ctx, Board b, boolean own) {
+        return BitBoard.toCoordinates(bedrohendeFiguren(ctx, BitBoard.of(b), own));
+    }
 
-        for (Coordinates piece : pieces) {
-            if (!getBedroht(b, piece).isEmpty())
-                out.add(piece);
+    /**
+     * Alle Figuren eines Teams, die jemanden bedrohen, also eine bedrohte gegnerische Figur schlagen können
+     *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
+     * @param b Ein beliebiges Spielfeld
+     * @param own true für eigenes Team, false für gegnerisches Team
+     * @return Die Felder der bedrohenden Figuren
+     */
+    public static long bedrohendeFiguren(AnalysisContext ctx, BitBoard b, boolean own) {
+        int team = ctx.teamIndex(own);
+        long bedroht = b.bedroht(1 - team);
+        long out = SquareSet.EMPTY;
+
+        for (long pieces = b.getTeam(team); pieces != 0; pieces &= pieces - 1) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            if ((b.targets(sq) & bedroht) != 0) {
+                out |= SquareSet.of(sq);
+            }
         }
 
         return out;
@@ -408,27 +481,29 @@ public class GameInfo {
 
     /**
      * Gibt zurück, ob eine Koordinate geschützt ist (also gedeckt und angreifbar, aber nicht bedroht)
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param c Die zu überprüfende Koordinate
      * @return ob die Koordinate geschützt ist
      */
-    public static boolean isGeschuetzt(Board b, Coordinates c, boolean own){
-        return isGedeckt(b, c, own) && isAttackable(b, c, own) && !isBedroht(b, c, own);
+    public static boolean isGeschuetzt(AnalysisContext ctx, Board b, Coordinates c, boolean own){
+        return isGedeckt(ctx, b, c, own) && isAttackable(ctx, b, c, own) && !isBedroht(ctx, b, c, own);
     }
 
     /**
      * gibt alle Figuren zurück, die von einer angegebenen Figur beschützt werden
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param piece Die zu überprüfende Figur
      * @return List<Coordinates>
      */
-    public static List<Coordinates> getSchuetzt(Board b, Coordinates piece) {
+    public static List<Coordinates> getSchuetzt(AnalysisContext ctx, Board b, Coordinates piece) {
         List<Coordinates> deckt = getDeckt(b, piece);
         List<Coordinates> schuetzt = new ArrayList<>();
 
         for (Coordinates c : deckt) {
-            if (isGeschuetzt(b, c, isOwn(b, piece))){
+            if (isGeschuetzt(ctx, b, c, isOwn(ctx, b, piece))){
                 schuetzt.add(c);
             }
         }
@@ -438,31 +513,33 @@ public class GameInfo {
 
     /**
      * Gibt den Unterschied von geschützten Figuren des angegebenen Teams vor und nach dem Zug zurück
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param m Der zu überprüfende Zug
      * @param own Eigenes Team?
      * @return Negativ: weniger geschützte Figuren nach dem Zug, positiv: mehr
      */
-    public static int geschuetztDifferenceAfterMove(Board b, Move m, boolean own){
-        Board sim = b.clone();
+    public static int geschuetztDifferenceAfterMove(AnalysisContext ctx, Board b, Move m, boolean own){
+        Board sim = copy(ctx, b);
         sim.movePiece(m);
-        return geschuetzteFiguren(sim, own).size() - geschuetzteFiguren(b, own).size();
+        return geschuetzteFiguren(ctx, sim, own).size() - geschuetzteFiguren(ctx, b, own).size();
     }
 
     /**
      * Gibt alle geschützten Figuren eines Teams zurück
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param own Eigenes Team?
      * @return Eine Liste mit allen geschützten Figuren des angegebenen Teams
      */
-    public static List<Coordinates> geschuetzteFiguren(Board b, boolean own){
-        Set<Coordinates> pieces = (own ? getOwnPieces(b) : getOpponentPieces(b)).keySet();
+    public static List<Coordinates> geschuetzteFiguren(AnalysisContext ctx, Board b, boolean own){
+        Set<Coordinates> pieces = (own ? getOwnPieces(ctx, b) : getOpponentPieces(ctx, b)).keySet();
         List<Coordinates> out = new ArrayList<>();
 
         for(Coordinates c : pieces){
             // Ist die Koordinate geschützt und befindet sich dort auch wirklich eine Figur? (Es werden ja nur Pieces
             // überprüft)
-            if(isGeschuetzt(b, c, own)){
+            if(isGeschuetzt(ctx, b, c, own)){
                 out.add(c);
             }
         }
@@ -479,9 +556,13 @@ public class GameInfo {
      * @return boolean ist blockiert
      */
     public static boolean isBlockiert(Board b, Coordinates piece) {
-        boolean own = isOwn(b, piece);
-        for(Move m : getMovesFrom(b, piece)){
-            if(bedrohtDifferenceAfterMove(b, m, own) <= 0){
+        return isBlockiert(new AttackMap(BitBoard.of(b)), BitBoard.square(piece));
+    }
+
+    private static boolean isBlockiert(AttackMap map, int from) {
+        int team = map.getBoard().team(from);
+        for(long to = map.getBoard().targets(from); to != 0; to &= to - 1){
+            if(map.bedrohtDifference(from, Long.numberOfTrailingZeros(to), team) <= 0){
                 return false;
             }
         }
@@ -490,32 +571,44 @@ public class GameInfo {
 
     /**
      * gibt anzahl blockierter Figuren für ein team zurück
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b
      * @param own
      * @return List mit Coordinates der blockierten Figuren
      */
-    public static List<Coordinates> blockierteFiguren(Board b, boolean own){
-        List<Coordinates> blocked = new ArrayList<>();
+    public static List<Coordinates> blockierteFiguren(AnalysisContext ctx, Board b, boolean own){
+        return BitBoard.toCoordinates(blockierteFiguren(ctx, new AttackMap(BitBoard.of(b)), own));
+    }
 
-        for(Coordinates c : own ? getOwnPieces(b).keySet() : getOpponentPieces(b).keySet()) {
-            if(isBlockiert(b, c) && !blocked.contains(c)){
-                blocked.add(c);
+    /**
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
+     * @param map Ein beliebiges Spielfeld; wird für die Prüfung nur vorübergehend verändert
+     * @param own Eigenes Team?
+     * @return Die Felder der blockierten Figuren des Teams
+     */
+    public static long blockierteFiguren(AnalysisContext ctx, AttackMap map, boolean own){
+        long blocked = SquareSet.EMPTY;
+
+        for(long pieces = map.getBoard().getTeam(ctx.teamIndex(own)); pieces != 0; pieces &= pieces - 1) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            if(isBlockiert(map, sq)){
+                blocked |= SquareSet.of(sq);
             }
         }
         return blocked;
-
     }
 
     /**
      * gibt den Unterschied der anzahl der blockierten Figuren nach einem Move an in int
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b
      * @param move
      * @return wenn weniger dann negativ
      */
-    public static int blockiertDifferenceAfterMove(Board b, Move move, boolean own){
-        Board c = b.clone();
+    public static int blockiertDifferenceAfterMove(AnalysisContext ctx, Board b, Move move, boolean own){
+        Board c = copy(ctx, b);
         c.movePiece(move);
-        return blockierteFiguren(c, own).size() - blockierteFiguren(b, own).size();
+        return blockierteFiguren(ctx, c, own).size() - blockierteFiguren(ctx, b, own).size();
     }
 
     // ----------
@@ -524,47 +617,109 @@ public class GameInfo {
 
     /**
      * gibt alle schlagenden Moves zurück, die das angegebene Team machen kann, ohne danach den entstehenden Turm in Gefahr zu
-     * bringen
+     * bringen. Ob sich der Schlag lohnt, entscheidet die {@link StaticExchange} über alle Rückschläge auf dem Feld; daneben
+     * dürfen durch den Zug nicht mehr eigene Figuren bedroht sein als vorher.
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param own dein Team?
      * @return List of <Move> die nach dem Schlagen nicht bedroht sind
      */
-    public static List<Move> getSafelyKillMoves(Board b, boolean own) {
-        List<Move> moves = own ? getOwnMoves(b) : getOpponentMoves(b);
-        List<Move> out = new ArrayList<>();
+    public static List<Move> getSafelyKillMoves(AnalysisContext ctx, Board b, boolean own) {
+        BitBoard bits = BitBoard.of(b);
+        return ctx.getCache().get(ctx, bits.getHash(), Query.SAFELY_KILL_MOVES, own, () -> getSafelyKillMoves(ctx, bits, own).toMoves());
+    }
+
+    /**
+     * Wie {@link #getSafelyKillMoves(AnalysisContext, Board, boolean)}, aber ohne Zwischenspeicher
+     *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
+     * @param b Ein beliebiges Spielfeld; wird für die Prüfung nur vorübergehend verändert
+     * @param own dein Team?
+     * @return Die schlagenden Züge, nach denen nicht mehr eigene Figuren bedroht sind
+     */
+    public static MoveList getSafelyKillMoves(AnalysisContext ctx, BitBoard b, boolean own) {
+        MoveList out = new MoveList();
+        MoveList captures = new MoveList();
+        int team = ctx.teamIndex(own);
+
+        ctx.getMetrics().moveGeneration();
+        MoveGenerator.generateCaptures(b, team, captures);
+        AttackMap map = null;
+        for (int i = 0; i < captures.size(); i++) {
+            int from = MoveGenerator.from(captures.get(i));
+            int to = MoveGenerator.to(captures.get(i));
+            // Verliert das Team beim Abtausch auf dem Zielfeld Material?
+            if (StaticExchange.evaluate(b, from, to) < 0) {
+                continue;
+            }
 
-        for (Move m : moves) {
-            // Ist an der Zielposition ein Gegner und ist diese bedroht (kann also geschlagen werden) und wird die
-            // Anzahl der eigenen bedrohten Figuren durch den Zug nicht erhöht?
-            if (bedrohteFiguren(b, !own).contains(m.getTo()) && bedrohtDifferenceAfterMove(b, m, own) <= 0){
-                out.add(m);
+            // Sind nach dem Zug mehr eigene Figuren bedroht, etwa weil die ziehende Figur sie gedeckt hat? Die ziehende
+            // Figur selbst ist nach dem Abtausch sicher. Die Karte wird erst gebraucht, wenn ein Schlag den Abtausch
+            // übersteht
+            if (map == null) {
+                map = new AttackMap(b);
+            }
+            long before = map.bedroht(team);
+            int undo = map.make(from, to);
+            long after = map.bedroht(team) & ~SquareSet.of(to);
+            map.unmake(from, to, undo);
+
+            if (SquareSet.size(after) <= SquareSet.size(before)) {
+                out.add(captures.get(i));
             }
         }
         return out;
     }
 
+    /**
+     * Materialgewinn eines Zuges nach allen lohnenden Schlägen auf dem Zielfeld
+     *
+     * @param b Ein beliebiges Spielfeld
+     * @param m Der zu überprüfende Zug
+     * @return Positiv, wenn das ziehende Team gewinnt, negativ bei Verlust
+     * @see StaticExchange#evaluate(BitBoard, int, int)
+     */
+    public static int staticExchange(Board b, Move m) {
+        return StaticExchange.evaluate(BitBoard.of(b), BitBoard.square(m.getFrom()), BitBoard.square(m.getTo()));
+    }
+
     /**
      * Gibt alle Moves zurück, mit denen man einen Punkt machen kann
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param own true für eigenes Team, false für gegnerisches Team
      * @return Liste mit Moves, mit denen man einen Punkt machen kann
      */
-    public static List<Move> getPointMoves(Board b, boolean own) {
-        List<Move> pieces = own ? getOwnMoves(b) : getOpponentMoves(b);
-        List<Move> out = new ArrayList<>();
-        ITeam team = own ? gameState.getCurrentTeam() : gameState.getOtherTeam();
+    public static List<Move> getPointMoves(AnalysisContext ctx, Board b, boolean own) {
+        BitBoard bits = BitBoard.of(b);
+        return ctx.getCache().get(ctx, bits.getHash(), Query.POINT_MOVES, own, () -> getPointMoves(ctx, bits, own).toMoves());
+    }
 
-        for (Move c : pieces) {
-            int currentPoints = gameState.getPointsForTeam(team);
+    /**
+     * Wie {@link #getPointMoves(AnalysisContext, Board, boolean)}, aber ohne Zwischenspeicher
+     *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
+     * @param b Ein beliebiges Spielfeld; wird für die Prüfung nur vorübergehend verändert
+     * @param own true für eigenes Team, false für gegnerisches Team
+     * @return Die Züge, mit denen man einen Punkt machen kann
+     */
+    public static MoveList getPointMoves(AnalysisContext ctx, BitBoard b, boolean own) {
+        MoveList out = new MoveList();
+        MoveList moves = new MoveList();
+
+        ctx.getMetrics().moveGeneration();
+        MoveGenerator.generate(b, ctx.teamIndex(own), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int from = MoveGenerator.from(moves.get(i));
+            int to = MoveGenerator.to(moves.get(i));
+            int undo = b.make(from, to);
+            b.unmake(from, to, undo);
 
-            GameState g = gameState.clone();
-            g.setTurn(gameState.getTurn() + (own ? 0 : 1));
-            g.performMove(c);
             // Hat das Team nach dem Zug mehr Punkte als vorher?
-            if (g.getPointsForTeam(team) > currentPoints) {
-                out.add(c);
+            if (BitBoard.isAmber(undo)) {
+                out.add(moves.get(i));
             }
         }
         return out;
@@ -572,88 +727,106 @@ public class GameInfo {
 
     /**
      * Gibt eine Liste aller Züge zurück, mit denen das jeweilige Team gewinnen kann
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b
      * @param own
      * @return
      */
-    public static List<Move> getWinningMoves(Board b, boolean own){
-        List<Move> out = new ArrayList<>();
+    public static List<Move> getWinningMoves(AnalysisContext ctx, Board b, boolean own){
+        BitBoard bits = BitBoard.of(b);
+        return ctx.getCache().get(ctx, bits.getHash(), Query.WINNING_MOVES, own, () -> getWinningMoves(ctx, bits, own).toMoves());
+    }
 
-        for (Move m : own ? getOwnMoves(b) : getOpponentMoves(b)) {
-            GameState sim = gameState.clone();
-            // Rundenänderung, damit auch gegnerische Züge ausgeführt werden können
-            sim.setTurn(gameState.getTurn() + (own ? 0 : 1));
-            sim.performMove(m);
-            if (sim.getPointsForTeam(own ? gameState.getCurrentTeam() : gameState.getOtherTeam()) >= 2) {
-                out.add(m);
-            }
+    /**
+     * Wie {@link #getWinningMoves(AnalysisContext, Board, boolean)}, aber ohne Zwischenspeicher
+     *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
+     * @param b Ein beliebiges Spielfeld; wird für die Prüfung nur vorübergehend verändert
+     * @param own Eigenes Team?
+     * @return Die Züge, mit denen das Team gewinnt
+     */
+    public static MoveList getWinningMoves(AnalysisContext ctx, BitBoard b, boolean own){
+        int points = ctx.getPoints(own);
+        if (points >= 2) {
+            // Schon gewonnen, jeder Zug reicht
+            return generateMoves(ctx, b, own);
+        }
+        if (points == 1) {
+            // Mit dem zweiten Bernstein ist das Spiel gewonnen
+            return getPointMoves(ctx, b, own);
         }
 
-        return out;
+        return new MoveList();
     }
 
     // Erstellt eine Liste mit allen Mooves die Wahrscheinlich zum Durchlaufsieg führt.
     // Falls kein Moove infrage kommt gibt es Null zurück
-    public static List<Move> durchlaufen(Board b, boolean own) {
-        List<Move> future = new ArrayList<Move> ();
-        if (oppositeSide(b,own).isEmpty())
-            return future;
-        else {
-            for (Move m: oppositeSide(b,own)){
-                if(future.isEmpty()) {
-                    future = futureDurchlaufen(b,getOpponentsMovesThatReach(b,m), own);
-                }
-                else{
-                    break;
-                }
-            }
-            return future;
+    public static List<Move> durchlaufen(AnalysisContext ctx, Board b, boolean own) {
+        return durchlaufen(ctx, BitBoard.of(b), own);
+    }
 
+    /**
+     * Wie {@link #durchlaufen(AnalysisContext, Board, boolean)}; das Brett wird nur vorübergehend verändert
+     */
+    public static List<Move> durchlaufen(AnalysisContext ctx, BitBoard b, boolean own) {
+        List<Move> future = new ArrayList<>();
+        for (Move m : oppositeSide(ctx, b, own)) {
+            future = futureDurchlaufen(ctx, b, getOpponentsMovesThatReach(ctx, b, m), own);
+            if (!future.isEmpty()) {
+                break;
+            }
         }
+        return future;
     }
 
     /*
     Guckt ob eine Figur zu 100% durchlaufen kann
     Der Gegner kann dies nicht verhindern, außer man selbst verliert
      */
-    public static List<Move> futureDurchlaufen(Board b, List <Move> a, boolean own) {
-        List<Move>futureMoves = new ArrayList<>();
-        Board c = b.clone();
-        for (Move n : getNachVorne(c,a)) {
-            while (!isBedroht(c,n.getTo(),own)){
-                c.movePiece(n);
-                c = b.clone();
-                for (Move m : getOpponentsMovesThatReach(c, n)) {
-                    c.movePiece(m);
-                    c = b.clone();
-                    System.out.println("Move m: " + m);
+    public static List<Move> futureDurchlaufen(AnalysisContext ctx, Board b, List <Move> a, boolean own) {
+        return futureDurchlaufen(ctx, BitBoard.of(b), a, own);
+    }
+
+    /**
+     * Wie {@link #futureDurchlaufen(AnalysisContext, Board, List, boolean)}; das Brett wird nur vorübergehend verändert
+     */
+    public static List<Move> futureDurchlaufen(AnalysisContext ctx, BitBoard b, List<Move> a, boolean own) {
+        List<Move> futureMoves = new ArrayList<>();
+        for (Move n : getNachVorne(ctx, b, a)) {
+            if (!isBedroht(ctx, b, BitBoard.square(n.getTo()), own)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Gegnerische Züge, die {} erreichen: {}", n, getOpponentsMovesThatReach(ctx, b, n));
                 }
                 futureMoves.add(n);
-                c = b.clone();
-                break;
             }
             if (n.getTo().getX() == 7 || n.getTo().getX() == 0) {
-                System.out.println("Theoretisches Durchlaufen geschafft");
+                log.debug("Theoretisches Durchlaufen geschafft");
                 futureMoves.add(n);
                 break;
             }
         }
-        System.out.println("futureDurchlaufen ist einmal durchgelaufen. \n c =\n" + c + "\n futureMoves = " + futureMoves );
+        log.debug("futureDurchlaufen ist einmal durchgelaufen. \n b =\n{}\n futureMoves = {}", b, futureMoves);
         return futureMoves;
     }
 
     // Filtert die eigenen Moves für durchlaufen, damit es nicht zu lange dauert
-    public static List<Move> getNachVorne (Board b, List<Move> a){
-        List<Move> agressiveMoves = new ArrayList();
+    public static List<Move> getNachVorne (AnalysisContext ctx, Board b, List<Move> a){
+        return getNachVorne(ctx, BitBoard.of(b), a);
+    }
+
+    /**
+     * Wie {@link #getNachVorne(AnalysisContext, Board, List)}; das Brett wird nur vorübergehend verändert
+     */
+    public static List<Move> getNachVorne(AnalysisContext ctx, BitBoard b, List<Move> a) {
+        int richtung = ctx.teamIndex(true) == 0 ? 1 : -1;
+        List<Move> agressiveMoves = new ArrayList<>();
         for (Move m : a) {
-            if (gameState.getCurrentTeam().getIndex() == 1 && m.getTo().getX() - m.getFrom().getX() == -1 && !isBedrohtAfterMove(b, m)) {
-                agressiveMoves.add(m);
-            }
-            if (gameState.getCurrentTeam().getIndex() == 0 && m.getTo().getX() - m.getFrom().getX() == 1 && !isBedrohtAfterMove(b, m)) {
+            if (m.getTo().getX() - m.getFrom().getX() == richtung
+                    && !isBedrohtAfterMove(b, BitBoard.square(m.getFrom()), BitBoard.square(m.getTo()))) {
                 agressiveMoves.add(m);
             }
         }
-        System.out.println("Aggresive Moves: "+ agressiveMoves);
+        log.debug("Aggresive Moves: {}", agressiveMoves);
         return agressiveMoves;
     }
 
@@ -661,53 +834,67 @@ public class GameInfo {
     // Gibt eine Liste zurück mit gegnerischen Mooves die theoretisch das Durchlaufen verhindern können
     // Y Koordinaten Abweichung +/- 3
 
-    public static List<Move> getOpponentsMovesThatReach (Board b, Move m) {
-        List<Move> opponentsThatCanReach = new ArrayList <Move>();
-        for(Move o : getOpponentMoves(b)){
-            if(Math.abs(m.getTo().getY() - o.getTo().getY()) <=-1*(m.getFrom().getX()-7) && m.getTo().getX() - o.getTo().getX() >=-3 && m.getTo().getX() - o.getTo().getX() <=0 && gameState.getCurrentTeam().getIndex() == 0){
-                opponentsThatCanReach.add(o);
-            }
-            if(Math.abs(m.getTo().getY() - o.getTo().getY()) <=(m.getFrom().getX()) && m.getTo().getX() - o.getTo().getX() <=3 && m.getTo().getX() - o.getTo().getX() >=0 && gameState.getCurrentTeam().getIndex() == 1){
-                opponentsThatCanReach.add(o);
+    public static List<Move> getOpponentsMovesThatReach (AnalysisContext ctx, Board b, Move m) {
+        return getOpponentsMovesThatReach(ctx, BitBoard.of(b), m);
+    }
+
+    /**
+     * Wie {@link #getOpponentsMovesThatReach(AnalysisContext, Board, Move)}
+     */
+    public static List<Move> getOpponentsMovesThatReach(AnalysisContext ctx, BitBoard b, Move m) {
+        int team = ctx.teamIndex(true);
+        int x = m.getTo().getX();
+        int y = m.getTo().getY();
+        // Wie weit der Gegner in y-Richtung abweichen darf, abhängig von der Startspalte des Zuges
+        int reichweite = team == 0 ? 7 - m.getFrom().getX() : m.getFrom().getX();
+
+        List<Move> opponentsThatCanReach = new ArrayList<>();
+        MoveList opponentMoves = getOpponentMoves(ctx, b);
+        for (int i = 0; i < opponentMoves.size(); i++) {
+            int to = MoveGenerator.to(opponentMoves.get(i));
+            int dx = team == 0 ? BitBoard.x(to) - x : x - BitBoard.x(to);
+            if (Math.abs(y - BitBoard.y(to)) <= reichweite && dx >= 0 && dx <= 3) {
+                opponentsThatCanReach.add(MoveGenerator.toMove(opponentMoves.get(i)));
             }
         }
-        System.out.println("Alle gegnerische Figuren die die Durchlaufende Figure erreichen können: "+opponentsThatCanReach);
+        log.debug("Alle gegnerische Figuren die die Durchlaufende Figure erreichen können: {}", opponentsThatCanReach);
         return opponentsThatCanReach;
 
     }
-    public static List<Move> oppositeSide (Board b, Boolean own) {
-        List<Move> gegnerischeSeite = new ArrayList<Move>();
-        if (own = true) {
-            for (Move m : getOwnMoves(b)) {
-                if (gameState.getCurrentTeam().getIndex() == 0 && !isBedrohtAfterMove(b, m) && m.getFrom().getX() > 3 && b.get(m.getFrom()).getType() != PieceType.Robbe && m.getTo().getX() - m.getFrom().getX() == 1) {
-                    gegnerischeSeite.add(m);
-                    System.out.println("Erfolgreich move: " + m + " in gegnerischeSeite geaddet");
-                }
-                if (gameState.getCurrentTeam().getIndex() == 1 && !isBedrohtAfterMove(b, m) && m.getFrom().getX() < 4 && b.get(m.getFrom()).getType() != PieceType.Robbe && m.getTo().getX() - m.getFrom().getX() == -1) {
-                    gegnerischeSeite.add(m);
-                    System.out.println("Erfolgreich move: " + m + " in gegnerischeSeite geaddet");
-
-                }
-            }
-        } else if (own = false) {
-            for (Move m : getOpponentMoves(b)) {
-                if (gameState.getCurrentTeam().getIndex() == 0 && !isBedrohtAfterMove(b, m) && m.getFrom().getX() > 3 && b.get(m.getFrom()).getType() != PieceType.Robbe && m.getTo().getX() - m.getFrom().getX() == -1) {
-                    gegnerischeSeite.add(m);
-                    System.out.println("Erfolgreich move: " + m + " in gegnerischeSeite geaddet");
-                }
-                if (gameState.getCurrentTeam().getIndex() == 1 && !isBedrohtAfterMove(b, m) && m.getFrom().getX() < 4 && b.get(m.getFrom()).getType() != PieceType.Robbe && m.getTo().getX() - m.getFrom().getX() == 1) {
-                    gegnerischeSeite.add(m);
-                    System.out.println("Erfolgreich move: " + m + " in gegnerischeSeite geaddet");
+    public static List<Move> oppositeSide (AnalysisContext ctx, Board b, Boolean own) {
+        return oppositeSide(ctx, BitBoard.of(b), own);
+    }
 
-                }
+    /**
+     * Wie {@link #oppositeSide(AnalysisContext, Board, Boolean)}. Es werden immer die eigenen Züge betrachtet, wie
+     * schon in der ersten Fassung, die own mit = statt == verglichen hat; own wird daher nicht ausgewertet.
+     *
+     * @param b Ein beliebiges Spielfeld; wird für die Prüfung nur vorübergehend verändert
+     */
+    public static List<Move> oppositeSide(AnalysisContext ctx, BitBoard b, Boolean own) {
+        int team = ctx.teamIndex(true);
+        int richtung = team == 0 ? 1 : -1;
+        List<Move> gegnerischeSeite = new ArrayList<>();
+
+        MoveList moves = getOwnMoves(ctx, b);
+        for (int i = 0; i < moves.size(); i++) {
+            int from = MoveGenerator.from(moves.get(i));
+            int to = MoveGenerator.to(moves.get(i));
+            boolean gegnerischeHaelfte = team == 0 ? BitBoard.x(from) > 3 : BitBoard.x(from) < 4;
+            if (gegnerischeHaelfte && BitBoard.x(to) - BitBoard.x(from) == richtung && b.type(from) != ROBBE
+                    && !isBedrohtAfterMove(b, from, to)) {
+                Move m = MoveGenerator.toMove(moves.get(i));
+                gegnerischeSeite.add(m);
+                log.debug("Erfolgreich move: {} in gegnerischeSeite geaddet", m);
             }
-        } return gegnerischeSeite;
+        }
+        return gegnerischeSeite;
     }
 
-    public static Move canGegnerDurchlaufen (Board b, Move m){
+    public static Move canGegnerDurchlaufen (AnalysisContext ctx, Board b, Move m){
         List<Move> zug = new ArrayList<>();
         zug.add(m);
-        if(!futureDurchlaufen(b,zug,false).isEmpty())
+        if(!futureDurchlaufen(ctx, b,zug,false).isEmpty())
             return null;
         return m;
     }
@@ -715,27 +902,20 @@ public class GameInfo {
     /**
      * Befindet sich das angegebene Team in einer Zwickmühle (mindestens 2 Figuren bedroht, es können nicht alle im
      * nächsten Zug gedeckt werden)
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param own Eigenes Team?
      * @return Ob das Team in einer Zwickmühle ist
      */
-    public static boolean zwickmuehle(Board b, boolean own){
-        // Mindestens 2 bedrohte Figuren
-        if(bedrohteFiguren(b, own).size() >= 2) {
-            for (Move m : own ? getOwnMoves(b) : getOpponentMoves(b)) {
-                Board sim = b.clone();
-                sim.movePiece(m);
-
-                // Können alle noch durch einen Zug gedeckt werden? Dann liegt keine Zwickmühle vor
-                if (bedrohteFiguren(sim, own).isEmpty()) {
-                    return false;
-                }
-            }
-
-            return true;
-        }
+    public static boolean zwickmuehle(AnalysisContext ctx, Board b, boolean own){
+        return zwickmuehle(ctx, new AttackMap(BitBoard.of(b)), own);
+    }
 
-        return false;
+    /**
+     * Wie {@link #zwickmuehle(AnalysisContext, Board, boolean)}
+     */
+    public static boolean zwickmuehle(AnalysisContext ctx, AttackMap map, boolean own){
+        return map.zwickmuehle(ctx.teamIndex(own));
     }
 
     /**
@@ -746,15 +926,22 @@ public class GameInfo {
      * @return Eine Liste mit Figuren, die danach bedroht sind
      */
     public static List<Coordinates> zwickmuehleAfterMove(Board b, Move m) {
-        boolean own = isOwn(b, m.getFrom());
-        Board sim = b.clone();
-        sim.movePiece(m);
-
-        if(zwickmuehle(sim, !own)){
-            return bedrohteFiguren(sim, !own);
-        }
+        return BitBoard.toCoordinates(zwickmuehleAfterMove(new AttackMap(BitBoard.of(b)), BitBoard.square(m.getFrom()),
+                BitBoard.square(m.getTo())));
+    }
 
-        return new ArrayList<>();
+    /**
+     * Wie {@link #zwickmuehleAfterMove(Board, Move)}
+     *
+     * @param map Ein beliebiges Spielfeld; wird für die Prüfung nur vorübergehend verändert
+     * @return Die Felder der danach bedrohten gegnerischen Figuren oder {@link SquareSet#EMPTY}
+     */
+    public static long zwickmuehleAfterMove(AttackMap map, int from, int to) {
+        int other = 1 - map.getBoard().team(from);
+        int undo = map.make(from, to);
+        long bedroht = map.zwickmuehle(other) ? map.bedroht(other) : SquareSet.EMPTY;
+        map.unmake(from, to, undo);
+        return bedroht;
     }
 
     /**
@@ -764,17 +951,32 @@ public class GameInfo {
      * @return Ob nach dem Zug eine Zwickmühle erzeugt werden kann
      */
     public static boolean zwickmuehlePossibleAfterMove(Board b, Move m){
-        boolean own = isOwn(b, m.getFrom());
-        Board sim = b.clone();
-        sim.movePiece(m);
+        return zwickmuehlePossibleAfterMove(new AttackMap(BitBoard.of(b)), BitBoard.square(m.getFrom()),
+                BitBoard.square(m.getTo()));
+    }
 
-        for(Move otherTeamMove : own ? getOpponentMoves(sim) : getOwnMoves(sim)){
-            if(!zwickmuehleAfterMove(sim, otherTeamMove).isEmpty()){
-                return true;
-            }
+    /**
+     * Wie {@link #zwickmuehlePossibleAfterMove(Board, Move)}
+     *
+     * @param map Ein beliebiges Spielfeld; wird für die Prüfung nur vorübergehend verändert
+     */
+    public static boolean zwickmuehlePossibleAfterMove(AttackMap map, int from, int to){
+        int team = map.getBoard().team(from);
+        int undo = map.make(from, to);
+
+        boolean possible = false;
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(map.getBoard(), 1 - team, moves);
+        for (int i = 0; i < count && !possible; i++) {
+            int otherFrom = MoveGenerator.from(moves[i]);
+            int otherTo = MoveGenerator.to(moves[i]);
+            int otherUndo = map.make(otherFrom, otherTo);
+            possible = map.zwickmuehle(team);
+            map.unmake(otherFrom, otherTo, otherUndo);
         }
 
-        return false;
+        map.unmake(from, to, undo);
+        return possible;
     }
 
 
@@ -783,16 +985,17 @@ public class GameInfo {
     /**
      * gibt zurück, welche Figuren von Towern bedroht sind
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b    Ein beliebiges Spielfeld
      * @param own, true for own false for enemy
      * @return Liste mit Figuren, die von Türmen bedroht sind
      */
-    public static List<Coordinates> bedrohteFigurenByTower(Board b, boolean own) {
-        List<Coordinates> pieces = bedrohteFiguren(b, own);
+    public static List<Coordinates> bedrohteFigurenByTower(AnalysisContext ctx, Board b, boolean own) {
+        List<Coordinates> pieces = bedrohteFiguren(ctx, b, own);
         List<Coordinates> out = new ArrayList<>();
 
         for (Coordinates c : pieces) {
-            if (isBedrohtByTower(b, c, own)) {
+            if (isBedrohtByTower(ctx, b, c, own)) {
                 out.add(c);
             }
         }
@@ -803,15 +1006,16 @@ public class GameInfo {
     /**
      * gibt zurück, ob eine Koordinate von einem Turm bedroht wird
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b     Ein beliebiges Spielfeld
      * @param c Die zu überprüfende Koordinate
      * @param own Soll für eigenes Team überprüft werden?
      * @return boolean
      */
-    public static boolean isBedrohtByTower(Board b, Coordinates c, boolean own) {
-        if (!isBedroht(b, c, own)) return false;
+    public static boolean isBedrohtByTower(AnalysisContext ctx, Board b, Coordinates c, boolean own) {
+        if (!isBedroht(ctx, b, c, own)) return false;
 
-        for (Coordinates bedrohtVon : getWirdBedrohtVon(b, c, own)) {
+        for (Coordinates bedrohtVon : getWirdBedrohtVon(ctx, b, c, own)) {
             if (isTower(b, bedrohtVon)) return true;
         }
         return false;
@@ -819,12 +1023,13 @@ public class GameInfo {
 
     /**
      * Gibt alle Züge eines Teams nach Figur geordnet zurück
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param own Eigenes Team?
      * @return Eine Map, in der jeder Figur alle ihre möglichen Züge zugeordnet werden
      */
-    public static Map<Coordinates, List<Move>> getMovesForEveryPiece(Board b, boolean own) {
-        Map<Coordinates, Piece> pieces = own ? getOwnPieces(b) : getOpponentPieces(b);
+    public static Map<Coordinates, List<Move>> getMovesForEveryPiece(AnalysisContext ctx, Board b, boolean own) {
+        Map<Coordinates, Piece> pieces = own ? getOwnPieces(ctx, b) : getOpponentPieces(ctx, b);
         Map<Coordinates, List<Move>> out = new HashMap<>();
 
         for (Coordinates c : pieces.keySet()) {
@@ -837,17 +1042,18 @@ public class GameInfo {
     /**
      * Gibt zurück, ob nach einem Zug irgendeine der eigenen Figuren bedroht ist
      *
+     * @param ctx Der Spielstand, auf den sich die Abfrage bezieht
      * @param b Ein beliebiges Spielfeld
      * @param m Der zu überprüfende Zug
      */
     @Deprecated
-    public static boolean isAnyoneBedrohtAfterMove(Board b, Move m) {
-        Board imag = b.clone();
+    public static boolean isAnyoneBedrohtAfterMove(AnalysisContext ctx, Board b, Move m) {
+        Board imag = copy(ctx, b);
         imag.movePiece(m);
 
-        Set<Coordinates> ownPieces = getOwnPieces(imag).keySet();
+        Set<Coordinates> ownPieces = getOwnPieces(ctx, imag).keySet();
         for (Coordinates c : ownPieces) {
-            if (isBedroht(imag, c, isOwn(b, m.getFrom()))) {
+            if (isBedroht(ctx, imag, c, isOwn(ctx, b, m.getFrom()))) {
                 return true;
             }
         }
@@ -859,20 +1065,20 @@ public class GameInfo {
      * Sucht nach Figuren, die gerade unmittelbar bedroht sind und gibt mögliche rettende Züge zurück
      */
     @Deprecated
-    public static List<Move> getSavingMoves(Board b) {
+    public static List<Move> getSavingMoves(AnalysisContext ctx, Board b) {
         //todo: ausschließen wenn Figuren gedeckt sind, einschließen wenn die gegnerische Figur ein Turm ist
-        Set<Coordinates> pieces = getOwnPieces(b).keySet();
+        Set<Coordinates> pieces = getOwnPieces(ctx, b).keySet();
         List<Coordinates> threatened = new ArrayList<>();
         List<Move> savingMoves = new ArrayList<>();
 
-        for (Move m : getOpponentMoves(b)) {
+        for (Move m : getOpponentMoves(ctx, b)) {
             if (pieces.contains(m.getTo())) {
                 threatened.add(m.getTo());
             }
         }
 
-        for (Move m : gameState.getPossibleMoves()) {
-            if (threatened.contains(m.getFrom()) && !isAnyoneBedrohtAfterMove(b, m)) {
+        for (Move m : getOwnMoves(ctx, b)) {
+            if (threatened.contains(m.getFrom()) && !isAnyoneBedrohtAfterMove(ctx, b, m)) {
                 savingMoves.add(m);
             }
         }
@@ -0,0 +1,157 @@
+package sc.player2022.logic;
+
+import sc.player2022.logic.bitboard.AttackMap;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.plugin2022.PieceType;
+
+/**
+ * Bewertung nach {@link Bewertung#bewerte(AttackMap, int)}, die bei jedem Zug mitgeführt statt neu berechnet wird.
+ * Der Materialwert pro Team (Bernsteine, {@link Bewertung#pieceValue} und Türme) ist eine laufende Summe, die bei
+ * {@link #make(int, int)} nur für die beteiligten Felder geändert wird; bedrohte und gedeckte Figuren kommen aus der
+ * ebenfalls schrittweise aktualisierten {@link AttackMap}. Eine Bewertung kostet damit nichts mehr, ein Zug nur so
+ * viel wie die Aktualisierung der Karte.
+ * <p>
+ * Wie bei der Karte dürfen Züge nur noch hierüber ausgeführt werden, solange die Bewertung benutzt wird.
+ */
+public final class IncrementalEvaluation {
+    private static final int ROBBE = PieceType.Robbe.ordinal();
+
+    /** Mehr Züge als bis zum Spielende kann es nicht geben */
+    private static final int MAX_PLY = 128;
+
+    private final AttackMap map;
+    private final BitBoard board;
+
+    /** Materialwert pro Team */
+    private final int[] material = new int[2];
+
+    /** Materialwerte vor jedem ausgeführten Zug, zum Zurücknehmen */
+    private final int[] stack = new int[2 * MAX_PLY];
+    private int ply;
+
+    /**
+     * @param board Ein beliebiges Brett, das ab jetzt über diese Bewertung verändert wird
+     */
+    public IncrementalEvaluation(BitBoard board) {
+        this.board = board;
+        this.map = new AttackMap(board);
+
+        for (int team = 0; team < 2; team++) {
+            material[team] = Bewertung.AMBER_WERT * board.getAmbers(team);
+            for (long pieces = board.getTeam(team); pieces != 0; pieces &= pieces - 1) {
+                int sq = Long.numberOfTrailingZeros(pieces);
+                material[team] += value(board.type(sq), team, sq, board.isTower(sq));
+            }
+        }
+    }
+
+    private static int value(int type, int team, int sq, boolean tower) {
+        return Bewertung.pieceValueLookup(type, team, sq) + (tower ? Bewertung.TURM_WERT : 0);
+    }
+
+    /**
+     * Führt einen Zug aus und aktualisiert Karte und Materialwerte
+     * @see AttackMap#make(int, int)
+     */
+    public int make(int from, int to) {
+        stack[2 * ply] = material[0];
+        stack[2 * ply + 1] = material[1];
+        ply++;
+
+        int undo = map.make(from, to);
+        int team = BitBoard.moverTeam(undo);
+        int type = BitBoard.moverType(undo);
+
+        material[team] -= value(type, team, from, BitBoard.moverWasTower(undo));
+        if (BitBoard.isCapture(undo)) {
+            material[1 - team] -= value(BitBoard.capturedType(undo), 1 - team, to, BitBoard.capturedWasTower(undo));
+        }
+        if (BitBoard.isAmber(undo)) {
+            material[team] += Bewertung.AMBER_WERT;
+        } else {
+            material[team] += value(type, team, to, board.isTower(to));
+        }
+
+        return undo;
+    }
+
+    /**
+     * Nimmt einen Zug zurück
+     * @see AttackMap#unmake(int, int, int)
+     */
+    public void unmake(int from, int to, int undo) {
+        map.unmake(from, to, undo);
+        ply--;
+        material[0] = stack[2 * ply];
+        material[1] = stack[2 * ply + 1];
+    }
+
+    /**
+     * @param team Index des Teams, aus dessen Sicht bewertet wird
+     * @return Das Gleiche wie {@link Bewertung#bewerte(AttackMap, int)}
+     */
+    public int bewerte(int team) {
+        int value = 0;
+        for (int t = 0; t < 2; t++) {
+            int teamValue = material[t] + Long.bitCount(map.gedeckt(t)) - 2 * Long.bitCount(map.bedroht(t));
+            value += t == team ? teamValue : -teamValue;
+        }
+        return value;
+    }
+
+    /**
+     * @return Materialwert des Teams: Bernsteine, Figurenwerte und Türme
+     */
+    public int getMaterial(int team) {
+        return material[team];
+    }
+
+    /**
+     * @return Anzahl der bedrohten Figuren des Teams
+     */
+    public int bedrohtCount(int team) {
+        return Long.bitCount(map.bedroht(team));
+    }
+
+    /**
+     * @return Anzahl der gedeckten Figuren des Teams
+     */
+    public int gedecktCount(int team) {
+        return Long.bitCount(map.gedeckt(team));
+    }
+
+    /**
+     * Kann das Team mit seinem nächsten Zug einen Bernstein bekommen? Leichte Figuren, die die Ziellinie erreichen,
+     * oder Schläge, nach denen drei Figuren übereinander stehen.
+     *
+     * @param team Index eines Teams
+     * @return Ob das Team einen Punkt machen kann
+     */
+    public boolean canScore(int team) {
+        long ziel = 0x0101010101010101L << BitBoard.zielLinie(team);
+        long opponents = board.getTeam(1 - team);
+
+        for (long pieces = board.getTeam(team); pieces != 0; pieces &= pieces - 1) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            long targets = board.targets(sq);
+            if (board.type(sq) != ROBBE && (targets & ziel) != 0) {
+                return true;
+            }
+            // Ein Turm schlägt alles, eine einzelne Figur muss einen Turm schlagen
+            long victims = targets & opponents & (board.isTower(sq) ? -1L : board.getTowers());
+            if (victims != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public AttackMap getMap() {
+        return map;
+    }
+
+    public BitBoard getBoard() {
+        return board;
+    }
+}
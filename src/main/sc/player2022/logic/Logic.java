@@ -5,21 +5,33 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sc.api.plugins.IGameState;
 import sc.player.IGameHandler;
+import sc.player2022.logic.MoveMetrics.Phase;
+import sc.player2022.logic.bitboard.AttackMap;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.player2022.logic.bitboard.MoveGenerator;
+import sc.player2022.logic.bitboard.MoveList;
+import sc.player2022.logic.bitboard.SquareSet;
+import sc.player2022.logic.book.OpeningBook;
+import sc.player2022.logic.endgame.Tablebase;
 import sc.plugin2022.*;
 import sc.shared.GameResult;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static sc.player2022.logic.GameInfo.*;
 
 /**
- * Das Herz des Clients:
- * Eine sehr simple Logik, die ihre Züge zufällig wählt,
- * aber gültige Züge macht.
+ * Das Herz des Clients: Eine Logik, die ihren Zug über eine Kaskade von Heuristiken bestimmt. Bekannte Züge aus der
+ * Endspieldatenbank und dem Eröffnungsbuch haben Vorrang. Sonst wird der Reihe nach geprüft, ob ein Zug das Spiel
+ * gewinnt, eine bedrohte Figur gerettet werden muss, ein Bernstein gemacht, sicher geschlagen, eine gegnerische
+ * Zwickmühle verhindert oder eine eigene erzeugt werden kann; schlechte Züge werden vorher aussortiert. Unter den
+ * übrigen Zügen entscheidet {@link Bewertung#besterZug}.
  * <p>
- * Außerdem werden zum Spielverlauf Konsolenausgaben gemacht.
+ * Die Heuristiken laufen mit einem {@link TimeBudget}; ist die Zeit abgelaufen, wird der beste bis dahin bekannte Zug
+ * gesendet. Außerdem werden zum Spielverlauf Konsolenausgaben und Messwerte pro Zug gemacht.
  */
 public class Logic implements IGameHandler {
     private static final Logger log = LoggerFactory.getLogger(Logic.class);
@@ -27,44 +39,288 @@ public class Logic implements IGameHandler {
     /**
      * Aktueller Spielstatus.
      */
-    private GameState gameState;
+    protected GameState gameState;
+
+    /**
+     * Spielstand für die Abfragen aus {@link GameInfo} und {@link Bewertung}, wird bei jedem neuen Spielstand ersetzt
+     */
+    protected AnalysisContext context;
+
+    /**
+     * Ergebnisse der Abfragen, gilt jeweils nur für einen Spielstand
+     */
+    private final AnalysisCache cache = new AnalysisCache();
+
+    /**
+     * Zeitplanung für den aktuellen Zug
+     */
+    protected TimeBudget budget;
+
+    /**
+     * Eröffnungsbuch, kann null sein
+     */
+    protected OpeningBook book;
+
+    /**
+     * Endspieldatenbank, kann null sein
+     */
+    protected Tablebase tablebase;
+
+    /**
+     * Auswahl unter den bewerteten Zügen in {@link Bewertung#besterZug}
+     */
+    private MoveSelection selection = MoveSelection.random();
+
+    /**
+     * Threads für die Prüfung der Kandidatenzüge, null, wenn im Thread der Heuristiken geprüft wird
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Messwerte aller Züge dieses Spiels
+     */
+    private final MetricsSummary summary = new MetricsSummary();
+
+    /**
+     * Threads für die Heuristiken, damit nach Ablauf der Zeit trotzdem ein Zug gesendet werden kann
+     */
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "Heuristiken");
+        t.setDaemon(true);
+        return t;
+    });
 
     public void onGameOver(@NotNull GameResult data) {
         log.info("Das Spiel ist beendet, Ergebnis: {}", data);
+        log.info("Analyse-Cache: {} Treffer, {} Fehlschläge, Trefferquote {}%", cache.getHits(), cache.getMisses(),
+                Math.round(cache.getHitRate() * 100));
+        log.info("Metriken des Spiels: {}", summary);
+        shutdown();
+    }
+
+    /**
+     * Beendet alle Threads der Logik. Wird bei {@link #onGameOver} aufgerufen; wer die Logik ohne Server spielen lässt
+     * und kein Spielergebnis hat, muss das nach dem Spiel selbst tun. Danach kann die Logik keine Züge mehr berechnen.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
     }
 
     @Override
     @NotNull
     public Move calculateMove() {
-        long startTime = System.currentTimeMillis();
+        budget = TimeBudget.forMove(gameState);
+        context = context.withMetrics(new MoveMetrics());
         log.info("Es wurde ein Zug von {} angefordert.", gameState.getCurrentTeam());
+        Move move = knownMove();
+        return report(move != null ? move : heuristicMove());
+    }
+
+    /**
+     * Gibt die Messwerte des Zuges als eine Zeile aus und nimmt sie in die Zusammenfassung für das Spielende auf.
+     *
+     * @param move Der Zug, der gesendet wird
+     * @return Den Zug
+     */
+    protected Move report(Move move) {
+        MoveMetrics metrics = context.getMetrics();
+        metrics.finish();
+        summary.add(metrics);
+        log.info("Metriken zug={} {}", gameState.getTurn(), metrics);
+        return move;
+    }
+
+    /**
+     * Setzt das Eröffnungsbuch. Es kann von mehreren Logiken gleichzeitig benutzt werden.
+     *
+     * @param book Das Buch oder null, um ohne Buch zu spielen
+     */
+    public void setBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Legt fest, wie {@link Bewertung#besterZug} auswählt, etwa deterministisch für vergleichbare Messungen.
+     *
+     * @param selection Eine eigene Instanz für diese Logik
+     */
+    public void setMoveSelection(MoveSelection selection) {
+        this.selection = selection;
+    }
+
+    /**
+     * Legt fest, auf wie viele Kerne die Prüfung der Kandidatenzüge in den Heuristiken verteilt wird. Das Ergebnis ist
+     * unabhängig davon dasselbe.
+     *
+     * @param cores Anzahl der Kerne, 1 für keine Parallelisierung
+     */
+    public void setParallelism(int cores) {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        pool = cores > 1 ? new ForkJoinPool(cores) : null;
+    }
 
+    /**
+     * Setzt die Endspieldatenbank. Sie kann von mehreren Logiken gleichzeitig benutzt werden.
+     *
+     * @param tablebase Die Datenbank oder null, um ohne sie zu spielen
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * @return Den Zug aus der Endspieldatenbank oder dem Eröffnungsbuch oder null, wenn die Stellung in keinem von
+     * beiden ist
+     */
+    protected Move knownMove() {
+        if (tablebase == null && book == null) {
+            return null;
+        }
+
+        // Einmal umwandeln, beide Abfragen arbeiten auf demselben Brett und erzeugen selbst nichts
+        BitBoard b = BitBoard.of(gameState);
+        Move move = tablebaseMove(b);
+        return move != null ? move : bookMove(b);
+    }
+
+    /**
+     * @param b Die aktuelle Stellung
+     * @return Den Zug aus der Endspieldatenbank oder null, wenn die Stellung nicht darin ist
+     */
+    protected Move tablebaseMove(BitBoard b) {
+        if (tablebase == null) {
+            return null;
+        }
+        Move move = MoveGenerator.toMove(tablebase.bestMove(b));
+        if (move != null) {
+            context.getMetrics().finish(Phase.ENDSPIELDATENBANK);
+            log.info("Zug aus der Endspieldatenbank: {}", move);
+        }
+        return move;
+    }
+
+    /**
+     * @param b Die aktuelle Stellung
+     * @return Den Zug aus dem Eröffnungsbuch oder null, wenn die Stellung nicht im Buch ist
+     */
+    protected Move bookMove(BitBoard b) {
+        if (book == null) {
+            return null;
+        }
+        Move move = MoveGenerator.toMove(book.probe(b));
+        if (move != null) {
+            context.getMetrics().finish(Phase.EROEFFNUNGSBUCH);
+            log.info("Zug aus dem Eröffnungsbuch: {}", move);
+        }
+        return move;
+    }
+
+    /**
+     * Bestimmt den Zug über die Heuristiken in einem eigenen Thread. Sind diese bis zur harten Zeitgrenze von
+     * {@link #budget} nicht fertig, wird der beste bis dahin bekannte gültige Zug zurückgegeben.
+     *
+     * @return Einen gültigen Zug
+     */
+    protected Move heuristicMove() {
+        GameState state = gameState;
+        AnalysisContext ctx = context;
+        TimeBudget zeit = budget;
+        AtomicReference<Move> bisherBester = new AtomicReference<>(startZug(state, ctx));
+        Future<Move> future = executor.submit(() -> kaskade(state, ctx, zeit, bisherBester));
+
+        try {
+            Move move = future.get(zeit.remainingMillis(), TimeUnit.MILLISECONDS);
+            ctx.getMetrics().finish();
+            return move;
+        } catch (TimeoutException e) {
+            zeitAbgelaufen(ctx, zeit, bisherBester.get());
+        } catch (InterruptedException e) {
+            ctx.getMetrics().finish(Phase.UNTERBROCHEN);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Die Heuristiken brechen mit TimeBudget.Expired ab, wenn sie selbst den Ablauf der Zeit bemerken
+            if (e.getCause() instanceof TimeBudget.Expired) {
+                zeitAbgelaufen(ctx, zeit, bisherBester.get());
+            } else {
+                ctx.getMetrics().finish(Phase.FEHLER);
+                log.error("Fehler in den Heuristiken:", e.getCause());
+            }
+        }
+
+        future.cancel(true);
+        return bisherBester.get();
+    }
+
+    private static void zeitAbgelaufen(AnalysisContext ctx, TimeBudget zeit, Move bisherBester) {
+        ctx.getMetrics().finish(Phase.ZEIT_ABGELAUFEN);
+        log.warn("Zeit abgelaufen nach {}ms, sende besten bisherigen Zug {}", zeit.elapsedMillis(), bisherBester);
+    }
+
+    /**
+     * Der Zug, der gesendet wird, wenn die Heuristiken keinen besseren finden: ein sicherer Schlag, sonst der beste Zug
+     * nach {@link Bewertung#besterZug}. Beides dauert nur Mikrosekunden. Ausgewählt wird deterministisch, damit dafür
+     * keine Zufallszahlen der eigentlichen Auswahl verbraucht werden.
+     */
+    private static Move startZug(GameState state, AnalysisContext ctx) {
+        BitBoard bits = BitBoard.of(state);
+        MoveList sicherSchlagen = getSafelyKillMoves(ctx, bits, true);
+        if (!sicherSchlagen.isEmpty()) {
+            return MoveGenerator.toMove(sicherSchlagen.get(0));
+        }
+        return Bewertung.besterZug(ctx.withSelection(MoveSelection.deterministic()), state.getBoard(),
+                getOwnMoves(ctx, bits).toMoves());
+    }
+
+    /**
+     * Die Heuristiken. In allen längeren Schleifen wird die Zeit geprüft; nach Ablauf wird mit
+     * {@link TimeBudget.Expired} abgebrochen.
+     *
+     * @param gameState Der Spielstand, für den der Zug bestimmt wird
+     * @param ctx Der Spielstand für die Abfragen aus {@link GameInfo}
+     * @param zeit Die Zeitplanung für diesen Zug
+     * @param bisherBester Wird mit dem besten bisher bekannten Zug aktualisiert
+     */
+    private Move kaskade(GameState gameState, AnalysisContext ctx, TimeBudget zeit, AtomicReference<Move> bisherBester) {
         // Wichtige Spielinformationen
+        ctx.getMetrics().enter(Phase.GEWINNEN);
         Board board = gameState.getBoard();
-        Map<Coordinates, Piece> ownPieces = GameInfo.getOwnPieces(board);
-        Map<Coordinates, Piece> opponentPieces = GameInfo.getOpponentPieces(board);
-        List<Move> possibleMoves = GameInfo.getOwnMoves(board);
-        List<Move> opponentMoves = GameInfo.getOpponentMoves(board);
+        List<Move> possibleMoves = GameInfo.getOwnMoves(ctx, board);
+
+        // Die Abfragen in den Schleifen laufen auf einem BitBoard bzw. einer AttackMap dazu: jeder Zug wird mit
+        // make/unmake geprüft, statt für jede Prüfung das Brett zu kopieren und neu umzuwandeln. Das BitBoard ist nach
+        // jeder Prüfung wieder im Ausgangszustand
+        BitBoard bits = BitBoard.of(board);
+        AttackMap map = new AttackMap(bits);
 
         try{
             // Kann mit einem Zug das Spiel gewonnen werden?
-            if(!getWinningMoves(board, true).isEmpty()){
-                return getWinningMoves(board, true).get(0);
+            MoveList winningMoves = getWinningMoves(ctx, bits, true);
+            if(!winningMoves.isEmpty()){
+                return MoveGenerator.toMove(winningMoves.get(0));
             }
 
+            ctx.getMetrics().enter(Phase.VERTEIDIGUNG);
             // Verteidigung
             // Für Spieler 2 im letzten Zug spielt Verteidigen keine Rolle
-            if (gameState.getTurn() != 59 && !bedrohteFiguren(board, true).isEmpty()) {
+            if (gameState.getTurn() != 59 && bedrohteFiguren(ctx, bits, true) != SquareSet.EMPTY) {
                 // Gegnerische bedrohende Figuren
-                List<Coordinates> bedrohend = bedrohendeFiguren(board, false);
+                long bedrohend = bedrohendeFiguren(ctx, bits, false);
+                MoveList sicherSchlagen = getSafelyKillMoves(ctx, bits, true);
+                MoveList punktMachen = getPointMoves(ctx, bits, true);
+                long bedrohteTower = bedrohteTower(ctx, bits, true);
 
                 // Kann die bedrohende Figur gefahrlos geschlagen werden?
                 List<Move> angriffMoves = new ArrayList<>();
-                for(Move m : getSafelyKillMoves(board, true)){
-                    if(bedrohend.contains(m.getTo())){
+                for(Move m : sicherSchlagen.toMoves()){
+                    if(SquareSet.contains(bedrohend, m.getTo())){
                         // Kann durch den Zug ein Punkt gemacht werden (Turm schlägt bedrohende Figur)
-                        if(getPointMoves(board, true).contains(m)){
-                            System.out.println("Verteidigung: Punkt machen: " + m);
+                        if(punktMachen.contains(m)){
+                            log.debug("Verteidigung: Punkt machen: {}", m);
                             return m;
                         }
                         angriffMoves.add(m);
@@ -72,19 +328,23 @@ public class Logic implements IGameHandler {
                 }
 
                 if(!angriffMoves.isEmpty()){
-                    System.out.println("Verteidigung: Schlagen: " + angriffMoves);
-                    return Bewertung.besterZug(board, angriffMoves);
+                    log.debug("Verteidigung: Schlagen: {}", angriffMoves);
+                    return Bewertung.besterZug(ctx, board, angriffMoves);
                 }
 
                 // Kann die bedrohte Figur sich selbst in Sicherheit bewegen bzw. von einer anderen Figur gedeckt werden?
                 int highest = 0;
                 List<Move> verteidigungsMoves = new ArrayList<>();
                 for(Move m : possibleMoves){
+                    zeit.check();
                     // Wenn es bedrohte Tower gibt, werden nur Moves von Towern betrachtet, damit diese sich in Sicherheit
                     // bringen können
-                    if(bedrohteTower(board, true).isEmpty() || isTower(board, m.getFrom())){
-                        int diff = (-1) * bedrohtDifferenceAfterMove(board, m, true);
-                        System.out.println("Verteidigung: bedroht difference after move " + m + ": " + diff);
+                    int from = BitBoard.square(m.getFrom());
+                    if(bedrohteTower == SquareSet.EMPTY || bits.isTower(from)){
+                        int diff = (-1) * bedrohtDifferenceAfterMove(ctx, map, from, BitBoard.square(m.getTo()), true);
+                        if (log.isDebugEnabled()) {
+                            log.debug("Verteidigung: bedroht difference after move {}: {}", m, diff);
+                        }
 
                         // Sind durch den Zug weniger Figuren bedroht als durch alle anderen? Dann leere die Liste und
                         // speichere zukünftig nur noch gleich gute Züge
@@ -101,129 +361,171 @@ public class Logic implements IGameHandler {
 
                 // Kann mit einem rettenden/deckenden Zug gefahrlos geschlagen werden? Dann diesen nehmen
                 for(Move m : verteidigungsMoves){
-                    if(getSafelyKillMoves(board, true).contains(m)){
-                        System.out.println("Verteidigung: Schlagen durch in Sicherheit bringen/decken: " + m);
+                    if(sicherSchlagen.contains(m)){
+                        log.debug("Verteidigung: Schlagen durch in Sicherheit bringen/decken: {}", m);
                         return m;
                     }
                 }
 
                 // Wenn es bedrohte Tower gibt, dann diese auf jeden Fall in Sicherheit bringen, ansonsten nur Figuren saven
                 // wenn es keine Zwickmühle gibt
-                if ((!bedrohteTower(board, true).isEmpty() || !zwickmuehle(board, true)) && !verteidigungsMoves.isEmpty()) {
-                    System.out.println("Verteidigung: In Sicherheit bewegen bzw. bedrohte Figur decken: " + verteidigungsMoves);
-                    return Bewertung.besterZug(board, verteidigungsMoves);
+                if ((bedrohteTower != SquareSet.EMPTY || !zwickmuehle(ctx, map, true)) && !verteidigungsMoves.isEmpty()) {
+                    log.debug("Verteidigung: In Sicherheit bewegen bzw. bedrohte Figur decken: {}", verteidigungsMoves);
+                    return Bewertung.besterZug(ctx, board, verteidigungsMoves);
                 }
             }
 
+            ctx.getMetrics().enter(Phase.SCHLECHTE_ZUEGE);
             //Schlechte Züge aussortieren
-            for(int i = 0; i < possibleMoves.size(); i++) {
-                Move m = possibleMoves.get(i);
-                // Anzahl der bedrohten Figuren erhöht sich (erhöht sich auch, wenn man eine blockierte Figur wegbewegt)
-                // Oder kann der Gegner nach dem Move eine Zwickmühle erzeugen?
-                if(bedrohtDifferenceAfterMove(board, m, true) > 0 || zwickmuehlePossibleAfterMove(board, m)){
-                    System.out.println("Schlechter Zug: " + m);
-                    possibleMoves.remove(i);
-                    i--;
+            // Anzahl der bedrohten Figuren erhöht sich (erhöht sich auch, wenn man eine blockierte Figur wegbewegt)
+            // Oder kann der Gegner nach dem Move eine Zwickmühle erzeugen?
+            List<Move> kandidaten = new ArrayList<>(possibleMoves);
+            int[] schlecht = CandidateScan.scan(pool, bits, kandidaten, zeit, (sim, m) -> {
+                int from = BitBoard.square(m.getFrom());
+                int to = BitBoard.square(m.getTo());
+                return bedrohtDifferenceAfterMove(ctx, sim, from, to, true) > 0
+                        || zwickmuehlePossibleAfterMove(sim, from, to) ? 1 : 0;
+            });
+            possibleMoves.clear();
+            for(int i = 0; i < kandidaten.size(); i++) {
+                if(schlecht[i] != 0){
+                    log.debug("Schlechter Zug: {}", kandidaten.get(i));
                 } else {
-                    Board c = board.clone();
-                    c.movePiece(m);
-                    /*if(durchlaufen(board, true).isEmpty() && !durchlaufen(c, false).isEmpty()){
-                        possibleMoves.remove(i);
-                        i--;
-                    }*/
+                    possibleMoves.add(kandidaten.get(i));
                 }
             }
 
+            // Ab hier ist jeder übrige Zug besser als irgendein Zug
+            if(!possibleMoves.isEmpty()){
+                bisherBester.set(possibleMoves.get(0));
+            }
+
+            ctx.getMetrics().enter(Phase.DURCHLAUFEN_VERHINDERN);
             //Prüft ob der Gegner durchlaufen kann
             try{
-                if (!oppositeSide(board,false).isEmpty()) {
-                    System.out.println("Kann durchlaufen, ACHTUNG! " + oppositeSide(board, false));
-                    List<Move> durchlaufen = durchlaufen(board, false);
+                List<Move> gegnerDurchlaufen = oppositeSide(ctx, bits, false);
+                if (!gegnerDurchlaufen.isEmpty()) {
+                    log.debug("Kann durchlaufen, ACHTUNG! {}", gegnerDurchlaufen);
+                    List<Move> durchlaufen = durchlaufen(ctx, bits, false);
                     if(!durchlaufen.isEmpty()){
-                        System.out.println("Durchlaufen: " + durchlaufen);
+                        log.debug("Durchlaufen: {}", durchlaufen);
                         //return durchlaufen.get(0);
                     }
                 }
             } catch (Exception e){
-                System.out.println("Durchlaufen verhindern: Exception: ");
-                e.printStackTrace(System.out);
+                log.warn("Durchlaufen verhindern: Exception:", e);
             }
 
 
+            ctx.getMetrics().enter(Phase.PUNKT_MACHEN);
             // Prüft ob ein Punkt gemacht werden kann
-            List<Move> pointMoves = getPointMoves(board, true);
+            List<Move> pointMoves = getPointMoves(ctx, bits, true).toMoves();
             if (pointMoves.size() != 0){
-                System.out.println("Punkt machen: " + pointMoves);
-                return Bewertung.besterZug(board, pointMoves);
+                log.debug("Punkt machen: {}", pointMoves);
+                return Bewertung.besterZug(ctx, board, pointMoves);
             }
 
 
+            ctx.getMetrics().enter(Phase.DURCHLAUFEN);
             //prüft ob das Durchlaufen möglich ist
             try{
-                List<Move> durchlaufen = durchlaufen(board, true);
+                List<Move> durchlaufen = durchlaufen(ctx, bits, true);
                 if (!durchlaufen.isEmpty()) {
                     if(possibleMoves.contains(durchlaufen.get(0))){
-                        return durchlaufen(board, true).get(0);
+                        return durchlaufen.get(0);
                     }
                 }
             } catch (Exception e){
-                System.out.println("Durchlaufen: Exception:");
-                e.printStackTrace(System.out);
+                log.warn("Durchlaufen: Exception:", e);
             }
 
 
+            ctx.getMetrics().enter(Phase.SICHER_SCHLAGEN);
             // Sicheres Schlagen
-            List<Move> safelyKill = getSafelyKillMoves(board, true);
-            System.out.println(board);
+            List<Move> safelyKill = getSafelyKillMoves(ctx, bits, true).toMoves();
+            log.debug("Brett:\n{}", board);
             if (!safelyKill.isEmpty()) {
-                System.out.println("Sicher schlagen: " + safelyKill);
-                return Bewertung.besterZug(board, safelyKill);
+                log.debug("Sicher schlagen: {}", safelyKill);
+                return Bewertung.besterZug(ctx, board, safelyKill);
             }
 
+            ctx.getMetrics().enter(Phase.ZWICKMUEHLE_VERHINDERN);
             // Verhindern einer Zwickmühle des Gegners im nächsten Zug
-            List<Move> zwickmuehleVerhindern = new ArrayList<>();
-            for(Move m : opponentMoves){
-                List<Coordinates> bedrohtZwickmuehle = zwickmuehleAfterMove(board, m);
-                if(!bedrohtZwickmuehle.isEmpty()){
+            // Alle Züge werden auf der AttackMap ausgeführt und wieder zurückgenommen: erst der gegnerische Zug, der die
+            // Zwickmühle erzeugt, dann jeweils ein eigener Zug, der gegnerische und ein zweiter eigener
+            MoveList zwickmuehleVerhindern = new MoveList();
+            MoveList opponentMoves = getOpponentMoves(ctx, bits);
+            MoveList ownMoves2 = new MoveList();
+            int ownTeam = ctx.teamIndex(true);
+            for(int i = 0; i < opponentMoves.size(); i++){
+                zeit.check();
+                int mFrom = MoveGenerator.from(opponentMoves.get(i));
+                int mTo = MoveGenerator.to(opponentMoves.get(i));
+                long bedrohtZwickmuehle = zwickmuehleAfterMove(map, mFrom, mTo);
+                if(bedrohtZwickmuehle != SquareSet.EMPTY){
                     for(Move ownMove : possibleMoves){
-                        Board sim = board.clone();
-                        sim.movePiece(ownMove);
+                        zeit.check();
+                        int from = BitBoard.square(ownMove.getFrom());
+                        int to = BitBoard.square(ownMove.getTo());
+                        int undo = map.make(from, to);
 
                         // Bedrohen des Feldes, von dem aus der Gegner die Zwickmühle erzeugt (das Feld, von dem aus man bedroht, darf aber auch nicht bedroht sein)
-                        if(!isBedroht(sim, ownMove.getTo(), true)){
-                            if(isBedroht(sim, m.getTo(), false) && !zwickmuehleVerhindern.contains(ownMove)){
-                                System.out.println("Zwickmühle verhindern: Feld bedrohen: " + ownMove);
-                                zwickmuehleVerhindern.add(ownMove);
+                        if(!isBedroht(ctx, bits, to, true)){
+                            if(isBedroht(ctx, bits, mTo, false) && !zwickmuehleVerhindern.contains(from, to)){
+                                log.debug("Zwickmühle verhindern: Feld bedrohen: {}", ownMove);
+                                zwickmuehleVerhindern.add(from << 6 | to);
+                            } else if(bits.team(mFrom) != 1 - ownTeam){
+                                // Der eigene Zug schlägt die Figur, mit der der Gegner die Zwickmühle erzeugen würde
+                                if(!zwickmuehleVerhindern.contains(from, to)){
+                                    log.debug("Zwickmühle verhindern: Figur schlagen: {}", ownMove);
+                                    zwickmuehleVerhindern.add(from << 6 | to);
+                                }
                             } else {
 
                                 // Können die bedrohten Figuren innerhalb von zwei Zügen gedeckt werden?
-                                Board sim2 = sim.clone();
-                                sim2.movePiece(m);
-                                for(Move ownMove2 : getOwnMoves(sim2)){
-                                    Board sim3 = sim2.clone();
-                                    sim3.movePiece(ownMove2);
-                                    if(gedeckteFiguren(sim3, true).containsAll(bedrohtZwickmuehle) && !isBedroht(sim3, ownMove2.getTo(), true) && !zwickmuehleVerhindern.contains(ownMove)){
-                                        System.out.println("Zwickmühle verhindern: Decken in zwei Zügen: Ich: " + ownMove + ", Gegner: " + m + ", Ich: " + ownMove2);
-                                        zwickmuehleVerhindern.add(ownMove);
+                                int mUndo = map.make(mFrom, mTo);
+                                ownMoves2.clear();
+                                MoveGenerator.generate(bits, ownTeam, ownMoves2);
+                                for(int j = 0; j < ownMoves2.size(); j++){
+                                    int from2 = MoveGenerator.from(ownMoves2.get(j));
+                                    int to2 = MoveGenerator.to(ownMoves2.get(j));
+                                    int undo2 = map.make(from2, to2);
+                                    if((map.gedeckt(ownTeam) & bedrohtZwickmuehle) == bedrohtZwickmuehle && !isBedroht(ctx, bits, to2, true) && !zwickmuehleVerhindern.contains(from, to)){
+                                        if (log.isDebugEnabled()) {
+                                            log.debug("Zwickmühle verhindern: Decken in zwei Zügen: Ich: {}, Gegner: {}, Ich: {}", ownMove,
+                                                    MoveGenerator.toMove(opponentMoves.get(i)), MoveGenerator.toMove(ownMoves2.get(j)));
+                                        }
+                                        zwickmuehleVerhindern.add(from << 6 | to);
                                     }
+                                    map.unmake(from2, to2, undo2);
                                 }
+                                map.unmake(mFrom, mTo, mUndo);
                             }
                         }
+                        map.unmake(from, to, undo);
                     }
                 }
             }
 
             if(!zwickmuehleVerhindern.isEmpty()){
-                System.out.println("Zwickmühle verhindern: " + zwickmuehleVerhindern);
-                return Bewertung.besterZug(board, zwickmuehleVerhindern);
+                log.debug("Zwickmühle verhindern: {}", zwickmuehleVerhindern);
+                return Bewertung.besterZug(ctx, board, zwickmuehleVerhindern.toMoves());
             }
 
+            ctx.getMetrics().enter(Phase.ZWICKMUEHLE_ERZEUGEN);
             // Erzeugen einer Zwickmühle
             int highest = 2;
             List<Move> zwickmuehleErzeugen = new ArrayList<>();
-            for(Move m : possibleMoves){
-                if(!isBedrohtAfterMove(board, m)){
-                    int bedroht = zwickmuehleAfterMove(board, m).size();
+            // -1, wenn die Figur nach dem Zug bedroht ist, sonst die Anzahl der danach bedrohten gegnerischen Figuren
+            int[] zwickmuehleNach = CandidateScan.scan(pool, bits, possibleMoves, zeit, (sim, m) -> {
+                int from = BitBoard.square(m.getFrom());
+                int to = BitBoard.square(m.getTo());
+                return isBedrohtAfterMove(sim.getBoard(), from, to) ? -1 : SquareSet.size(zwickmuehleAfterMove(sim, from, to));
+            });
+            for(int i = 0; i < possibleMoves.size(); i++){
+                Move m = possibleMoves.get(i);
+                if(zwickmuehleNach[i] >= 0){
+                    int bedroht = zwickmuehleNach[i];
                     //System.out.println("Zwickmühle nach " + m + ": " + zwickmuehleAfterMove(board, m));
                     if(bedroht >= highest){
                         if(bedroht > highest){
@@ -237,21 +539,31 @@ public class Logic implements IGameHandler {
             }
 
             if(!zwickmuehleErzeugen.isEmpty()){
-                System.out.println("Zwickmühle erzeugen: " + zwickmuehleErzeugen);
-                return Bewertung.besterZug(board, zwickmuehleErzeugen);
+                log.debug("Zwickmühle erzeugen: {}", zwickmuehleErzeugen);
+                return Bewertung.besterZug(ctx, board, zwickmuehleErzeugen);
             }
 
+            ctx.getMetrics().enter(Phase.BLOCKIEREN);
             // Anzahl der Blockierten Figuren des Gegners erhöhen
             List<Move> blockedMoves = new ArrayList<>();
-            for (Move possibleMove : possibleMoves) {
-                if(blockiertDifferenceAfterMove(board, possibleMove, false) > 0 && !isBedrohtAfterMove(board, possibleMove)){
-                    blockedMoves.add(possibleMove);
+            int blockiertVorher = SquareSet.size(blockierteFiguren(ctx, map, false));
+            int[] blockiert = CandidateScan.scan(pool, bits, possibleMoves, zeit, (sim, m) -> {
+                int from = BitBoard.square(m.getFrom());
+                int to = BitBoard.square(m.getTo());
+                int undo = sim.make(from, to);
+                int blockiertNachher = SquareSet.size(blockierteFiguren(ctx, sim, false));
+                sim.unmake(from, to, undo);
+                return blockiertNachher > blockiertVorher && !isBedrohtAfterMove(sim.getBoard(), from, to) ? 1 : 0;
+            });
+            for (int i = 0; i < possibleMoves.size(); i++) {
+                if(blockiert[i] != 0){
+                    blockedMoves.add(possibleMoves.get(i));
                 }
             }
 
             if(blockedMoves.size() != 0){
-                System.out.println("Gegner blockieren: " + blockedMoves);
-                return Bewertung.besterZug(board, blockedMoves);
+                log.debug("Gegner blockieren: {}", blockedMoves);
+                return Bewertung.besterZug(ctx, board, blockedMoves);
             }
 
             // Erhöhung der Anzahl an bedrohten Figuren des Gegners, ohne dass sich die Anzahl der eigenen bedrohten Figuren
@@ -259,8 +571,8 @@ public class Logic implements IGameHandler {
 //            highest = 1;
 //            List<Move> bedrohen = new ArrayList<>();
 //            for(Move m : possibleMoves){
-//                if(bedrohtDifferenceAfterMove(board, m, true) <= 0){
-//                    int diff = bedrohtDifferenceAfterMove(board, m, false);
+//                if(bedrohtDifferenceAfterMove(ctx, board, m, true) <= 0){
+//                    int diff = bedrohtDifferenceAfterMove(ctx, board, m, false);
 //                    if(diff >= highest){
 //                        if(diff > highest){
 //                            bedrohen.clear();
@@ -274,35 +586,31 @@ public class Logic implements IGameHandler {
 //
 //            if(!bedrohen.isEmpty()){
 //                System.out.println("Gegner bedrohen: " + bedrohen);
-//                return Bewertung.besterZug(board, bedrohen);
+//                return Bewertung.besterZug(ctx, board, bedrohen);
 //            }
 
+            ctx.getMetrics().enter(Phase.UEBRIGE_ZUEGE);
             // Wählen des besten Zugs
             if(!possibleMoves.isEmpty()){
-                System.out.println("Übrige Züge: " + possibleMoves);
-                return Bewertung.besterZug(board, possibleMoves);
+                log.debug("Übrige Züge: {}", possibleMoves);
+                return Bewertung.besterZug(ctx, board, possibleMoves);
             } else {
-                System.out.println("Irgendein Zug: " + getOwnMoves(board));
-                return Bewertung.besterZug(board, getOwnMoves(board));
+                List<Move> alle = getOwnMoves(ctx, board);
+                log.debug("Irgendein Zug: {}", alle);
+                return Bewertung.besterZug(ctx, board, alle);
             }
-
-
-            //Debug-Ausgaben
-//        System.out.println("Eigene Figuren: " + ownPieces);
-//        System.out.println("Gegnerische Figuren: " + opponentPieces);
-//        System.out.println("Eigene Züge: " + possibleMoves);
-//        System.out.println("Gegnerische Züge: " + opponentMoves);
-
-//        log.info("Sende {} nach {}ms.", move, System.currentTimeMillis() - startTime);
+        } catch (TimeBudget.Expired e){
+            throw e;
         } catch (Exception e){
-            System.out.println("Exception: ");
-            e.printStackTrace(System.out);
+            ctx.getMetrics().enter(Phase.UEBRIGE_ZUEGE);
+            log.warn("Exception in den Heuristiken:", e);
             if(!possibleMoves.isEmpty()){
-                System.out.println("Übrige Züge: " + possibleMoves);
-                return Bewertung.besterZug(board, possibleMoves);
+                log.debug("Übrige Züge: {}", possibleMoves);
+                return Bewertung.besterZug(ctx, board, possibleMoves);
             } else {
-                System.out.println("Irgendein Zug: " + getOwnMoves(board));
-                return Bewertung.besterZug(board, getOwnMoves(board));
+                List<Move> alle = getOwnMoves(ctx, board);
+                log.debug("Irgendein Zug: {}", alle);
+                return Bewertung.besterZug(ctx, board, alle);
             }
         }
 
@@ -312,8 +620,9 @@ public class Logic implements IGameHandler {
     public void onUpdate(IGameState gameState) {
         GameState g = (GameState) gameState;
         this.gameState = g;
-        GameInfo.setGameState(g);
-        Bewertung.setGameState(g);
+        log.debug("Analyse-Cache: {} Treffer, {} Fehlschläge, {} Einträge", cache.getHits(), cache.getMisses(), cache.size());
+        cache.clear();
+        context = AnalysisContext.of(g, cache, selection);
         log.info("Zug: {} Dran: {}", gameState.getTurn(), gameState.getCurrentTeam());
     }
 
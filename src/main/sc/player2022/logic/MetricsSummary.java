@@ -0,0 +1,61 @@
+package sc.player2022.logic;
+
+import sc.player2022.logic.MoveMetrics.Phase;
+
+/**
+ * Fasst die {@link MoveMetrics} aller Züge eines Spiels zusammen, für die Ausgabe am Spielende
+ */
+public final class MetricsSummary {
+    private final long[] nanos = new long[MoveMetrics.PHASES.length];
+    private final long[] maxNanos = new long[MoveMetrics.PHASES.length];
+    private final int[] sources = new int[MoveMetrics.PHASES.length];
+
+    private int moves;
+    private long totalNanos;
+    private long maxTotalNanos;
+    private long boardClones;
+    private long moveGenerations;
+    private long bedrohtCalls;
+
+    public synchronized void add(MoveMetrics m) {
+        moves++;
+        totalNanos += m.getTotalNanos();
+        maxTotalNanos = Math.max(maxTotalNanos, m.getTotalNanos());
+        boardClones += m.getBoardClones();
+        moveGenerations += m.getMoveGenerations();
+        bedrohtCalls += m.getBedrohtCalls();
+
+        for (Phase phase : MoveMetrics.PHASES) {
+            long n = m.getNanos(phase);
+            nanos[phase.ordinal()] += n;
+            maxNanos[phase.ordinal()] = Math.max(maxNanos[phase.ordinal()], n);
+        }
+        if (m.getSource() != null) {
+            sources[m.getSource().ordinal()]++;
+        }
+    }
+
+    public synchronized int getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return Eine Zeile pro Phase, die gelaufen ist oder Züge geliefert hat: Gesamtzeit, längster Zug, Anzahl Züge
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(moves).append(" Züge, gesamt ").append(totalNanos / 1_000_000).append("ms, längster ")
+                .append(maxTotalNanos / 1_000_000).append("ms, ").append(boardClones).append(" Klone, ")
+                .append(moveGenerations).append(" Zuggenerierungen, ").append(bedrohtCalls).append(" isBedroht");
+
+        for (Phase phase : MoveMetrics.PHASES) {
+            int i = phase.ordinal();
+            if (nanos[i] > 0 || sources[i] > 0) {
+                out.append(String.format("%n  %-22s %6dms gesamt, %5dms max, %3d Züge",
+                        phase, nanos[i] / 1_000_000, maxNanos[i] / 1_000_000, sources[i]));
+            }
+        }
+        return out.toString();
+    }
+}
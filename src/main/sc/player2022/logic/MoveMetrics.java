@@ -0,0 +1,137 @@
+package sc.player2022.logic;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Messwerte für einen Zug: wie lange jede Phase der Heuristiken in {@link Logic} gedauert hat, wie oft Spielfelder
+ * kopiert, Züge erzeugt und {@code isBedroht} aufgerufen wurden, und aus welcher Phase der gesendete Zug stammt.
+ * <p>
+ * Die Phasen laufen nacheinander: {@link #enter(Phase)} beendet die laufende Phase und beginnt die nächste. Nur
+ * {@link Phase#BESTER_ZUG} wird zusätzlich innerhalb der anderen Phasen gemessen und ist in deren Zeit enthalten. Die
+ * Zähler können aus mehreren Threads erhöht werden, etwa vom {@link CandidateScan}.
+ */
+public final class MoveMetrics {
+    /**
+     * Phasen der Heuristiken in der Reihenfolge, in der sie durchlaufen werden, und die übrigen Quellen eines Zuges
+     */
+    public enum Phase {
+        ENDSPIELDATENBANK, EROEFFNUNGSBUCH, SUCHE, GEWINNEN, VERTEIDIGUNG, SCHLECHTE_ZUEGE, DURCHLAUFEN_VERHINDERN,
+        PUNKT_MACHEN, DURCHLAUFEN, SICHER_SCHLAGEN, ZWICKMUEHLE_VERHINDERN, ZWICKMUEHLE_ERZEUGEN, BLOCKIEREN,
+        UEBRIGE_ZUEGE, BESTER_ZUG, ZEIT_ABGELAUFEN, UNTERBROCHEN, FEHLER
+    }
+
+    static final Phase[] PHASES = Phase.values();
+
+    private final AtomicLongArray nanos = new AtomicLongArray(PHASES.length);
+    private final LongAdder boardClones = new LongAdder();
+    private final LongAdder moveGenerations = new LongAdder();
+    private final LongAdder bedrohtCalls = new LongAdder();
+
+    private final long start = System.nanoTime();
+    private long totalNanos;
+
+    private Phase current;
+    private long currentStart;
+    private Phase source;
+
+    /**
+     * Beendet die laufende Phase und beginnt die nächste
+     */
+    public synchronized void enter(Phase phase) {
+        long now = System.nanoTime();
+        if (current != null) {
+            nanos.addAndGet(current.ordinal(), now - currentStart);
+        }
+        current = phase;
+        currentStart = now;
+    }
+
+    /**
+     * Beendet die laufende Phase; sie ist die Quelle des Zuges
+     */
+    public synchronized void finish() {
+        finish(current);
+    }
+
+    /**
+     * Beendet die Messung für den Zug
+     *
+     * @param source Die Quelle des Zuges
+     */
+    public synchronized void finish(Phase source) {
+        if (this.source == null) {
+            enter(null);
+            this.source = source;
+            totalNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Misst eine Phase, die innerhalb einer anderen läuft
+     *
+     * @param startNanos Beginn nach {@link System#nanoTime()}
+     */
+    public void add(Phase phase, long startNanos) {
+        nanos.addAndGet(phase.ordinal(), System.nanoTime() - startNanos);
+    }
+
+    public void boardClone() {
+        boardClones.increment();
+    }
+
+    public void moveGeneration() {
+        moveGenerations.increment();
+    }
+
+    public void bedrohtCall() {
+        bedrohtCalls.increment();
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos.get(phase.ordinal());
+    }
+
+    /**
+     * @return Zeit vom Anlegen der Messwerte bis {@link #finish(Phase)}
+     */
+    public synchronized long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getBoardClones() {
+        return boardClones.sum();
+    }
+
+    public long getMoveGenerations() {
+        return moveGenerations.sum();
+    }
+
+    public long getBedrohtCalls() {
+        return bedrohtCalls.sum();
+    }
+
+    public synchronized Phase getSource() {
+        return source;
+    }
+
+    /**
+     * @return Eine Zeile mit allen Messwerten als schlüssel=wert, Zeiten in Mikrosekunden, nur Phasen, die gelaufen sind
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append("quelle=").append(getSource())
+                .append(" gesamtUs=").append(getTotalNanos() / 1000)
+                .append(" klone=").append(getBoardClones())
+                .append(" zuggenerierungen=").append(getMoveGenerations())
+                .append(" isBedroht=").append(getBedrohtCalls());
+        for (Phase phase : PHASES) {
+            long n = getNanos(phase);
+            if (n > 0) {
+                out.append(' ').append(phase.name().toLowerCase()).append("Us=").append(n / 1000);
+            }
+        }
+        return out.toString();
+    }
+}
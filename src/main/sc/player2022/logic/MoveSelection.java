@@ -0,0 +1,98 @@
+package sc.player2022.logic;
+
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.plugin2022.Move;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Wie {@link Bewertung#besterZug} aus den bewerteten Zügen einen auswählt:
+ * <ul>
+ *     <li>{@link Mode#RANDOM}: zufällig, je höher die Bewertung, desto wahrscheinlicher (bisheriges Verhalten)</li>
+ *     <li>{@link Mode#SEEDED}: ebenso, aber mit festem Startwert, damit sich Spiele wiederholen lassen</li>
+ *     <li>{@link Mode#DETERMINISTIC}: immer der Zug mit der höchsten Bewertung; bei Gleichstand der mit dem kleinsten
+ *     Start- und Zielfeld, unabhängig von der Reihenfolge der Züge</li>
+ * </ul>
+ * Jede Logik sollte eine eigene Instanz haben, sonst hängen die Zufallszahlen eines Spiels von den anderen ab.
+ */
+public final class MoveSelection {
+    public enum Mode { RANDOM, SEEDED, DETERMINISTIC }
+
+    private final Mode mode;
+    private final long seed;
+    private final Random random;
+
+    private MoveSelection(Mode mode, long seed, Random random) {
+        this.mode = mode;
+        this.seed = seed;
+        this.random = random;
+    }
+
+    public static MoveSelection random() {
+        return new MoveSelection(Mode.RANDOM, 0, new Random());
+    }
+
+    /**
+     * @param seed Startwert für die Zufallszahlen
+     */
+    public static MoveSelection seeded(long seed) {
+        return new MoveSelection(Mode.SEEDED, seed, new Random(seed));
+    }
+
+    public static MoveSelection deterministic() {
+        return new MoveSelection(Mode.DETERMINISTIC, 0, null);
+    }
+
+    /**
+     * @param ratings Die Züge mit ihrer Bewertung, in der Reihenfolge, in der sie bewertet wurden
+     * @param total Summe aller Bewertungen
+     * @param fallback Zug, wenn keiner gewählt wird
+     * @return Den gewählten Zug
+     */
+    Move select(Map<Move, Double> ratings, double total, Move fallback) {
+        if (mode == Mode.DETERMINISTIC) {
+            return best(ratings, fallback);
+        }
+
+        // Je größer die Bewertung, desto größer die Wahrscheinlichkeit, dass der Zug gewählt wird
+        double rand = random.nextDouble() * total;
+        double sum = 0;
+        for (Map.Entry<Move, Double> entry : ratings.entrySet()) {
+            sum += entry.getValue();
+            if (sum >= rand) {
+                return entry.getKey();
+            }
+        }
+
+        return fallback;
+    }
+
+    private static Move best(Map<Move, Double> ratings, Move fallback) {
+        Move out = fallback;
+        double best = Double.NEGATIVE_INFINITY;
+        int bestKey = Integer.MAX_VALUE;
+
+        for (Map.Entry<Move, Double> entry : ratings.entrySet()) {
+            Move m = entry.getKey();
+            int key = BitBoard.square(m.getFrom()) << 6 | BitBoard.square(m.getTo());
+            double value = entry.getValue();
+            if (value > best || (value == best && key < bestKey)) {
+                out = m;
+                best = value;
+                bestKey = key;
+            }
+        }
+
+        return out;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    @Override
+    public String toString() {
+        return mode == Mode.SEEDED ? mode + "(" + seed + ")" : mode.toString();
+    }
+}
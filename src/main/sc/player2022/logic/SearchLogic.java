@@ -0,0 +1,87 @@
+package sc.player2022.logic;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sc.api.plugins.IGameState;
+import sc.player2022.logic.search.ParallelSearch;
+import sc.player2022.logic.search.TranspositionTable;
+import sc.plugin2022.GameState;
+import sc.plugin2022.Move;
+
+/**
+ * Logik, die ihren Zug mit einer Alpha-Beta-Suche bestimmt. Findet die Suche in der verfügbaren Zeit keinen gültigen
+ * Zug, wird wie in {@link Logic} über die Heuristiken entschieden.
+ * <p>
+ * Mit Pondern wird nach dem eigenen Zug auf der Zeit des Gegners weitergesucht, bis dessen Zug ankommt, höchstens aber
+ * so lange, wie der Gegner Zeit hat. Am Spielende, nach einem Fehler und bei {@link #shutdown()} hört es sofort auf.
+ */
+public class SearchLogic extends Logic {
+    private static final Logger log = LoggerFactory.getLogger(SearchLogic.class);
+
+    private final ParallelSearch search;
+
+    private final boolean ponder;
+
+    /**
+     * @param tableMegabytes Speicher für die Transpositionstabelle in MB
+     * @param threads Anzahl der Threads, die gleichzeitig suchen
+     * @param ponder Ob auf der Zeit des Gegners weitergesucht werden soll
+     */
+    public SearchLogic(int tableMegabytes, int threads, boolean ponder) {
+        search = new ParallelSearch(new TranspositionTable(tableMegabytes), threads);
+        this.ponder = ponder;
+    }
+
+    public SearchLogic() {
+        this(TranspositionTable.DEFAULT_MB, 1, false);
+    }
+
+    @Override
+    @NotNull
+    public Move calculateMove() {
+        budget = TimeBudget.forMove(gameState);
+        context = context.withMetrics(new MoveMetrics());
+        Move knownMove = knownMove();
+        if (knownMove != null) {
+            return report(knownMove);
+        }
+
+        try {
+            Move move = search.bestMove(gameState, budget.getSoftDeadline(), budget.getHardDeadline());
+            if (move != null && gameState.getPossibleMoves().contains(move)) {
+                if (ponder) {
+                    search.startPondering(gameState, move);
+                }
+                context.getMetrics().finish(MoveMetrics.Phase.SUCHE);
+                return report(move);
+            }
+            log.warn("Suche hat keinen gültigen Zug gefunden: {}", move);
+        } catch (Exception e) {
+            log.error("Fehler in der Suche:", e);
+        }
+
+        return report(heuristicMove());
+    }
+
+    @Override
+    public void onUpdate(IGameState gameState) {
+        search.onUpdate((GameState) gameState);
+        super.onUpdate(gameState);
+    }
+
+    /**
+     * Nach einem Fehler kommt kein neuer Spielstand mehr, der das Pondern beenden würde
+     */
+    @Override
+    public void onError(@NotNull String error) {
+        search.stopPondering();
+        super.onError(error);
+    }
+
+    @Override
+    public void shutdown() {
+        search.shutdown();
+        super.shutdown();
+    }
+}
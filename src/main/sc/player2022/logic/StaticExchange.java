@@ -0,0 +1,90 @@
+package sc.player2022.logic;
+
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.plugin2022.PieceType;
+
+/**
+ * Statische Abtauschbewertung (SEE) für ein Feld: Was bringt ein Zug an Material, wenn danach beide Teams so lange auf
+ * dem Zielfeld zurückschlagen, wie es sich für sie lohnt? Bewertet wird wie in {@link Bewertung#bewerte}: Figurenwerte
+ * nach {@link Bewertung#pieceValue}, {@link Bewertung#TURM_WERT} für Türme und {@link Bewertung#AMBER_WERT}.
+ * <p>
+ * Beim Schlagen kommt die geschlagene Figur unter die schlagende; ab drei Figuren oder wenn eine leichte Figur die
+ * Ziellinie erreicht, wird daraus ein Bernstein und das Feld ist leer. Nach einem Schlag stehen also mindestens zwei
+ * Figuren auf dem Feld, und der nächste Schlag macht daraus sicher einen Bernstein. Eine Abfolge ist daher nach
+ * höchstens drei Zügen zu Ende, und statt wie üblich immer mit der billigsten Figur zurückzuschlagen, werden alle
+ * Angreifer durchprobiert. Die Angreifer kommen aus {@link BitBoard#attackers}; da keine Figur gleitet, ändern sich
+ * die Angreifer eines Feldes nur dadurch, dass sie selbst gezogen haben. Das Brett wird nicht verändert.
+ */
+public final class StaticExchange {
+    private static final int ROBBE = PieceType.Robbe.ordinal();
+
+    private StaticExchange() {
+    }
+
+    private static int value(int type, int team, int sq, int height) {
+        return Bewertung.pieceValueLookup(type, team, sq) + (height == 2 ? Bewertung.TURM_WERT : 0);
+    }
+
+    /**
+     * @param b Ein beliebiges Spielfeld
+     * @param from Startfeld des Zuges; dort muss eine Figur stehen
+     * @param to Zielfeld des Zuges; leer oder mit einer gegnerischen Figur
+     * @return Materialgewinn des ziehenden Teams nach dem Zug und allen lohnenden Schlägen auf dem Zielfeld, negativ
+     * bei Verlust
+     */
+    public static int evaluate(BitBoard b, int from, int to) {
+        int team = b.team(from);
+        int type = b.type(from);
+        int height = b.height(from);
+
+        int gain = 0;
+        if (b.team(to) == 1 - team) {
+            int capturedHeight = b.height(to);
+            gain = value(b.type(to), 1 - team, to, capturedHeight);
+            height += capturedHeight;
+        }
+        gain -= value(type, team, from, b.height(from));
+
+        if (isAmber(type, team, to, height)) {
+            return gain + Bewertung.AMBER_WERT;
+        }
+        gain += value(type, team, to, height);
+
+        return gain - exchange(b, to, 1 - team, type, height, 1L << from);
+    }
+
+    /**
+     * @param side Das Team, das auf dem Feld schlagen kann
+     * @param type Typ der obersten Figur auf dem Feld; sie gehört dem anderen Team
+     * @param height Anzahl der Figuren auf dem Feld
+     * @param moved Felder, deren Figuren schon auf das Feld gezogen sind
+     * @return Den besten Gewinn für das Team, 0, wenn sich kein Schlag lohnt
+     */
+    private static int exchange(BitBoard b, int to, int side, int type, int height, long moved) {
+        int best = 0;
+        int stack = value(type, 1 - side, to, height);
+
+        for (long attackers = b.attackers(to, side) & ~moved; attackers != 0; attackers &= attackers - 1) {
+            int from = Long.numberOfTrailingZeros(attackers);
+            int attackerType = b.type(from);
+            int attackerHeight = b.height(from);
+            int newHeight = attackerHeight + height;
+
+            int gain = stack - value(attackerType, side, from, attackerHeight);
+            if (isAmber(attackerType, side, to, newHeight)) {
+                gain += Bewertung.AMBER_WERT;
+            } else {
+                gain += value(attackerType, side, to, newHeight)
+                        - exchange(b, to, 1 - side, attackerType, newHeight, moved | 1L << from);
+            }
+
+            best = Math.max(best, gain);
+        }
+
+        return best;
+    }
+
+    private static boolean isAmber(int type, int team, int to, int height) {
+        return height >= 3 || (type != ROBBE && BitBoard.x(to) == BitBoard.zielLinie(team));
+    }
+}
@@ -0,0 +1,147 @@
+package sc.player2022.logic;
+
+import sc.player2022.logic.bitboard.AttackMap;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.plugin2022.GameState;
+
+/**
+ * Zeitplanung für einen Zug. Der Server erlaubt 2 Sekunden pro Zug, wer länger braucht, verliert.
+ * <p>
+ * Die weiche Grenze ist die Zeit, die für den Zug eingeplant ist: danach wird keine neue Suchtiefe mehr angefangen.
+ * Sie hängt vom Zug (wenig Zeit in der Eröffnung und in den letzten Zügen, wo die Suche ohnehin bis zum Ende rechnet)
+ * und davon ab, wie unruhig die Stellung ist (Schlagmöglichkeiten und bedrohte Figuren). Die harte Grenze ist immer
+ * gleich und lässt Puffer zum Limit des Servers; spätestens dann muss ein Zug gesendet werden.
+ */
+public final class TimeBudget {
+    /** Zeitlimit des Servers pro Zug in Millisekunden */
+    public static final long SERVER_LIMIT = 2000;
+
+    /** Harte Grenze in Millisekunden, mit Puffer für Netzwerk und Garbage Collection */
+    public static final long HARD_LIMIT = 1700;
+
+    /** Eingeplante Zeit für einen normalen Zug in Millisekunden */
+    public static final long SOFT_LIMIT = 900;
+
+    private static final long MIN_SOFT_LIMIT = 100;
+
+    private final long start;
+    private final long softDeadline;
+    private final long hardDeadline;
+
+    private TimeBudget(long start, long softMillis, long hardMillis) {
+        this.start = start;
+        this.softDeadline = start + softMillis * 1_000_000;
+        this.hardDeadline = start + hardMillis * 1_000_000;
+    }
+
+    /**
+     * Plant die Zeit für den Zug, der im Spielstand als nächstes kommt. Die Zeit läuft ab jetzt.
+     *
+     * @param gameState Der aktuelle Spielstand
+     */
+    public static TimeBudget forMove(GameState gameState) {
+        long start = System.nanoTime();
+        long soft = Math.round(SOFT_LIMIT * phase(gameState.getTurn()) * volatility(gameState));
+        return new TimeBudget(start, Math.max(MIN_SOFT_LIMIT, Math.min(soft, HARD_LIMIT)), HARD_LIMIT);
+    }
+
+    /**
+     * Budget mit festen Grenzen, etwa für Tests mit kürzerer Bedenkzeit
+     */
+    public static TimeBudget of(long softMillis, long hardMillis) {
+        return new TimeBudget(System.nanoTime(), Math.min(softMillis, hardMillis), hardMillis);
+    }
+
+    /**
+     * @param turn Der aktuelle Zug (0 bis 59)
+     * @return Faktor für die eingeplante Zeit nach Spielabschnitt
+     */
+    private static double phase(int turn) {
+        if (turn < 4) {
+            // Eröffnung: die Figuren sind noch weit voneinander entfernt
+            return 0.5;
+        }
+        if (turn >= 56) {
+            // Die letzten Züge werden ohnehin bis zum Spielende durchsucht
+            return 0.75;
+        }
+        return 1;
+    }
+
+    /**
+     * @return Faktor für die eingeplante Zeit nach Unruhe der Stellung, zwischen 0.75 und 1.5
+     */
+    private static double volatility(GameState gameState) {
+        AttackMap map = new AttackMap(BitBoard.of(gameState));
+        BitBoard b = map.getBoard();
+
+        int captures = Long.bitCount(map.attacks(0) & b.getTeam(1)) + Long.bitCount(map.attacks(1) & b.getTeam(0));
+        int bedroht = Long.bitCount(map.bedroht(0)) + Long.bitCount(map.bedroht(1));
+
+        return 0.75 + 0.75 * Math.min(1.0, (captures + bedroht) / 8.0);
+    }
+
+    // ---------
+    // Abfragen
+    // ---------
+
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return Weiche Grenze nach {@link System#nanoTime()}
+     */
+    public long getSoftDeadline() {
+        return softDeadline;
+    }
+
+    /**
+     * @return Harte Grenze nach {@link System#nanoTime()}
+     */
+    public long getHardDeadline() {
+        return hardDeadline;
+    }
+
+    public boolean isSoftExpired() {
+        return System.nanoTime() > softDeadline;
+    }
+
+    public boolean isHardExpired() {
+        return System.nanoTime() > hardDeadline;
+    }
+
+    /**
+     * @return Verbleibende Zeit bis zur harten Grenze in Millisekunden, mindestens 0
+     */
+    public long remainingMillis() {
+        return Math.max(0, (hardDeadline - System.nanoTime()) / 1_000_000);
+    }
+
+    /**
+     * @return Seit Beginn des Zuges vergangene Zeit in Millisekunden
+     */
+    public long elapsedMillis() {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Bricht eine laufende Berechnung ab, wenn die harte Grenze erreicht ist
+     *
+     * @throws Expired wenn die harte Grenze erreicht ist
+     */
+    public void check() {
+        if (isHardExpired()) {
+            throw new Expired();
+        }
+    }
+
+    /**
+     * Wird von {@link #check()} geworfen, wenn die Zeit für den Zug abgelaufen ist
+     */
+    public static final class Expired extends RuntimeException {
+        public Expired() {
+            super("Zeit für den Zug abgelaufen", null, false, false);
+        }
+    }
+}
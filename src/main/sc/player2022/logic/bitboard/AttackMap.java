@@ -0,0 +1,227 @@
+package sc.player2022.logic.bitboard;
+
+/**
+ * Bedrohungs- und Deckungskarte zu einem {@link BitBoard}. Speichert pro Team und Feld, wie viele Figuren das Feld
+ * erreichen und wie viele davon Türme sind. Die Karte wird bei {@link #make(int, int)} und {@link #unmake(int, int, int)}
+ * nur für die Figuren aktualisiert, die sich bewegt haben oder geschlagen wurden, statt das ganze Brett neu zu
+ * durchsuchen.
+ * <p>
+ * Züge sollten nur noch über die Karte ausgeführt werden, solange sie benutzt wird, sonst passen Brett und Karte nicht
+ * mehr zusammen.
+ */
+public final class AttackMap {
+    private final BitBoard board;
+
+    /** Anzahl der Figuren pro Team, die ein Feld erreichen */
+    private final int[][] attackers = new int[2][64];
+
+    /** Anzahl der Türme pro Team, die ein Feld erreichen */
+    private final int[][] towerAttackers = new int[2][64];
+
+    /** Felder, die von mindestens einer Figur des Teams erreicht werden */
+    private final long[] attacked = new long[2];
+
+    /** Felder, die von mindestens einem Turm des Teams erreicht werden */
+    private final long[] towerAttacked = new long[2];
+
+    /**
+     * Baut die Karte einmal vollständig für das angegebene Brett auf
+     * @param board Ein beliebiges Brett, das ab jetzt über diese Karte verändert wird
+     */
+    public AttackMap(BitBoard board) {
+        this.board = board;
+
+        for (int team = 0; team < 2; team++) {
+            for (long m = board.getTeam(team); m != 0; m &= m - 1) {
+                int sq = Long.numberOfTrailingZeros(m);
+                add(sq, board.type(sq), team, board.isTower(sq));
+            }
+        }
+    }
+
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    private void add(int sq, int type, int team, boolean tower) {
+        int[] count = attackers[team];
+        int[] towerCount = towerAttackers[team];
+
+        for (long m = Attacks.span(type, team, sq); m != 0; m &= m - 1) {
+            int s = Long.numberOfTrailingZeros(m);
+            if (count[s]++ == 0) {
+                attacked[team] |= 1L << s;
+            }
+            if (tower && towerCount[s]++ == 0) {
+                towerAttacked[team] |= 1L << s;
+            }
+        }
+    }
+
+    private void remove(int sq, int type, int team, boolean tower) {
+        int[] count = attackers[team];
+        int[] towerCount = towerAttackers[team];
+
+        for (long m = Attacks.span(type, team, sq); m != 0; m &= m - 1) {
+            int s = Long.numberOfTrailingZeros(m);
+            if (--count[s] == 0) {
+                attacked[team] &= ~(1L << s);
+            }
+            if (tower && --towerCount[s] == 0) {
+                towerAttacked[team] &= ~(1L << s);
+            }
+        }
+    }
+
+    // ---------------
+    // Züge simulieren
+    // ---------------
+
+    /**
+     * Führt einen Zug auf dem Brett aus und aktualisiert die Karte
+     * @see BitBoard#make(int, int)
+     */
+    public int make(int from, int to) {
+        int undo = board.make(from, to);
+        int team = BitBoard.moverTeam(undo);
+        int type = BitBoard.moverType(undo);
+
+        remove(from, type, team, BitBoard.moverWasTower(undo));
+        if (BitBoard.isCapture(undo)) {
+            remove(to, BitBoard.capturedType(undo), 1 - team, BitBoard.capturedWasTower(undo));
+        }
+        if (!BitBoard.isAmber(undo)) {
+            add(to, type, team, board.isTower(to));
+        }
+
+        return undo;
+    }
+
+    /**
+     * Nimmt einen Zug auf dem Brett zurück und aktualisiert die Karte
+     * @see BitBoard#unmake(int, int, int)
+     */
+    public void unmake(int from, int to, int undo) {
+        int team = BitBoard.moverTeam(undo);
+        int type = BitBoard.moverType(undo);
+
+        if (!BitBoard.isAmber(undo)) {
+            remove(to, type, team, board.isTower(to));
+        }
+        board.unmake(from, to, undo);
+        add(from, type, team, BitBoard.moverWasTower(undo));
+        if (BitBoard.isCapture(undo)) {
+            add(to, BitBoard.capturedType(undo), 1 - team, BitBoard.capturedWasTower(undo));
+        }
+    }
+
+    // ---------
+    // Abfragen
+    // ---------
+
+    /**
+     * @return Anzahl der Figuren des Teams, die das Feld erreichen
+     */
+    public int attackerCount(int sq, int team) {
+        return attackers[team][sq];
+    }
+
+    /**
+     * @return Ob ein Turm des Teams das Feld erreicht
+     */
+    public boolean isTowerAttacked(int sq, int team) {
+        return (towerAttacked[team] & (1L << sq)) != 0;
+    }
+
+    /**
+     * @return Alle Felder, die von Figuren des Teams erreicht werden
+     */
+    public long attacks(int team) {
+        return attacked[team];
+    }
+
+    /**
+     * @see BitBoard#gedeckteFelder(int)
+     */
+    public long gedeckteFelder(int team) {
+        return attacked[team] & ~board.getTowers();
+    }
+
+    /**
+     * @see BitBoard#bedrohteFelder(int)
+     */
+    public long bedrohteFelder(int team) {
+        int other = 1 - team;
+        long free = ~board.getTeam(other);
+        return (towerAttacked[other] & free) | (attacked[other] & free & ~gedeckteFelder(team));
+    }
+
+    public long bedroht(int team) {
+        return board.getTeam(team) & bedrohteFelder(team);
+    }
+
+    public long gedeckt(int team) {
+        return board.getTeam(team) & gedeckteFelder(team);
+    }
+
+    public boolean isBedroht(int sq, int team) {
+        return (bedrohteFelder(team) & (1L << sq)) != 0;
+    }
+
+    public boolean isGedeckt(int sq, int team) {
+        return (gedeckteFelder(team) & (1L << sq)) != 0;
+    }
+
+    /**
+     * @param team Index des Teams, dessen bedrohte Figuren gezählt werden
+     * @return Differenz der bedrohten Figuren des Teams nach dem Zug, negativ, wenn weniger
+     */
+    public int bedrohtDifference(int from, int to, int team) {
+        int before = Long.bitCount(bedroht(team));
+        int undo = make(from, to);
+        int after = Long.bitCount(bedroht(team));
+        unmake(from, to, undo);
+        return after - before;
+    }
+
+    /**
+     * @param team Index des Teams, dessen gedeckte Figuren gezählt werden
+     * @return Differenz der gedeckten Figuren des Teams nach dem Zug, negativ, wenn weniger
+     */
+    public int gedecktDifference(int from, int to, int team) {
+        int before = Long.bitCount(gedeckt(team));
+        int undo = make(from, to);
+        int after = Long.bitCount(gedeckt(team));
+        unmake(from, to, undo);
+        return after - before;
+    }
+
+    /**
+     * Befindet sich das Team in einer Zwickmühle (mindestens 2 Figuren bedroht, es können nicht alle im nächsten Zug
+     * gedeckt werden)? Entspricht {@code GameInfo.zwickmuehle}.
+     *
+     * @param team Index eines Teams
+     * @return Ob das Team in einer Zwickmühle ist
+     */
+    public boolean zwickmuehle(int team) {
+        if (Long.bitCount(bedroht(team)) < 2) {
+            return false;
+        }
+
+        for (long pieces = board.getTeam(team); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            for (long to = board.targets(from); to != 0; to &= to - 1) {
+                int target = Long.numberOfTrailingZeros(to);
+                int undo = make(from, target);
+                boolean saved = bedroht(team) == 0;
+                unmake(from, target, undo);
+
+                if (saved) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+}
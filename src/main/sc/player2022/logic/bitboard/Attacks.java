@@ -0,0 +1,67 @@
+package sc.player2022.logic.bitboard;
+
+import sc.plugin2022.Piece;
+import sc.plugin2022.PieceType;
+import sc.plugin2022.Team;
+import sc.plugin2022.Vector;
+
+/**
+ * Vorberechnete Tabellen, welche Felder eine Figur von einem Feld aus erreicht. Werden einmal beim Laden der Klasse aus
+ * {@link Piece#getPossibleMoves()} erzeugt, danach ist jede Abfrage ein Arrayzugriff.
+ * <p>
+ * Indizes: Figurentyp nach {@link PieceType#ordinal()}, Team nach {@link Team#getIndex()}, Feld nach
+ * {@link BitBoard#square(int, int)}.
+ */
+public final class Attacks {
+    private static final int TYPES = PieceType.values().length;
+
+    /** Felder, die eine Figur von einem Feld aus erreicht */
+    private static final long[][][] SPAN = new long[TYPES][2][64];
+
+    /** Felder, von denen aus eine Figur ein Feld erreicht */
+    private static final long[][][] REACHED_FROM = new long[TYPES][2][64];
+
+    static {
+        for (PieceType type : PieceType.values()) {
+            for (Team team : new Team[]{Team.ONE, Team.TWO}) {
+                int t = type.ordinal();
+                int k = team.getIndex();
+
+                for (Vector v : new Piece(type, team, 1).getPossibleMoves()) {
+                    for (int sq = 0; sq < 64; sq++) {
+                        int x = BitBoard.x(sq) + v.getDx();
+                        int y = BitBoard.y(sq) + v.getDy();
+                        if (x >= 0 && x < 8 && y >= 0 && y < 8) {
+                            int to = BitBoard.square(x, y);
+                            SPAN[t][k][sq] |= 1L << to;
+                            REACHED_FROM[t][k][to] |= 1L << sq;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * @param type {@link PieceType#ordinal()} der Figur
+     * @param team Index des Teams der Figur
+     * @param sq Feld, auf dem die Figur steht
+     * @return Alle Felder, die die Figur erreichen (und damit decken oder bedrohen) könnte
+     */
+    public static long span(int type, int team, int sq) {
+        return SPAN[type][team][sq];
+    }
+
+    /**
+     * @param type {@link PieceType#ordinal()} der Figur
+     * @param team Index des Teams der Figur
+     * @param sq Ein Feld
+     * @return Alle Felder, von denen aus eine solche Figur das angegebene Feld erreicht
+     */
+    public static long reachedFrom(int type, int team, int sq) {
+        return REACHED_FROM[type][team][sq];
+    }
+}
@@ -0,0 +1,569 @@
+package sc.player2022.logic.bitboard;
+
+import sc.plugin2022.*;
+
+import java.util.*;
+
+/**
+ * Kompakte Darstellung eines Spielfelds als Bitboards. Jedes Feld ist ein Bit in einem long, das Feld (x, y) hat den
+ * Index y * 8 + x.
+ * <p>
+ * Es gibt eine Maske pro Team, eine pro Figurentyp und eine für Türme (Höhe 2; Figuren der Höhe 3 werden im Spiel
+ * sofort zu Bernstein und verschwinden). Züge werden mit {@link #make(int, int)} ausgeführt und mit
+ * {@link #unmake(int, int, int)} wieder zurückgenommen, sodass für die Simulation eines Zuges kein Brett kopiert werden
+ * muss. Dabei wird auch der {@link Zobrist}-Hash der Stellung mitgeführt.
+ */
+public final class BitBoard {
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final Team[] TEAMS = {Team.ONE, Team.TWO};
+    private static final int ROBBE = PieceType.Robbe.ordinal();
+
+    /** Alle Koordinaten des Spielfelds, nach Feldindex. Werden wiederverwendet, statt neu erzeugt */
+    private static final Coordinates[] COORDINATES = new Coordinates[64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            COORDINATES[sq] = new Coordinates(x(sq), y(sq));
+        }
+    }
+
+    // Aufbau eines Undo-Werts, wie er von make zurückgegeben wird
+    private static final int UNDO_CAPTURED_TYPE = 0x7;   // Typ der geschlagenen Figur + 1, 0 = nichts geschlagen
+    private static final int UNDO_CAPTURED_TOWER = 1 << 3;
+    private static final int UNDO_MOVER_TOWER = 1 << 4;
+    private static final int UNDO_AMBER = 1 << 5;
+    private static final int UNDO_MOVER_TYPE_SHIFT = 6;
+    private static final int UNDO_MOVER_TEAM_SHIFT = 9;
+
+    /** Figuren pro Team (Index von {@link Team#getIndex()}) */
+    private final long[] teams = new long[2];
+
+    /** Figuren pro Typ (Index von {@link PieceType#ordinal()}) */
+    private final long[] types = new long[TYPES.length];
+
+    /** Felder, auf denen ein Turm (zwei Figuren) steht */
+    private long towers;
+
+    /** Bernsteine pro Team */
+    private final int[] ambers = new int[2];
+
+    private int turn;
+
+    /** Zobrist-Hash der Stellung */
+    private long hash;
+
+    // ----------
+    // Umwandlung
+    // ----------
+
+    /**
+     * @param b Ein beliebiges Spielfeld
+     * @return Das Spielfeld als BitBoard, mit Zug 0 und ohne Bernsteine
+     */
+    public static BitBoard of(Board b) {
+        BitBoard out = new BitBoard();
+
+        for (int sq = 0; sq < 64; sq++) {
+            Piece p = b.get(COORDINATES[sq]);
+            if (p != null) {
+                out.put(sq, p.getType().ordinal(), p.getTeam().getIndex(), p.getCount());
+            }
+        }
+
+        out.hash = Zobrist.hash(out);
+        return out;
+    }
+
+    /**
+     * @param gameState Ein beliebiger Spielstand
+     * @return Das Spielfeld des Spielstands als BitBoard, mit Zug und Bernsteinen
+     */
+    public static BitBoard of(GameState gameState) {
+        BitBoard out = of(gameState.getBoard());
+        out.turn = gameState.getTurn();
+        out.ambers[0] = gameState.getPointsForTeam(Team.ONE);
+        out.ambers[1] = gameState.getPointsForTeam(Team.TWO);
+        out.hash = Zobrist.hash(out);
+        return out;
+    }
+
+    /**
+     * @param turn Der Zug
+     * @param ambersOne Bernsteine von Team ONE
+     * @param ambersTwo Bernsteine von Team TWO
+     * @return Ein Spielfeld ohne Figuren, die mit {@link #place(int, int, int, int)} gesetzt werden können
+     */
+    public static BitBoard empty(int turn, int ambersOne, int ambersTwo) {
+        BitBoard out = new BitBoard();
+        out.turn = turn;
+        out.ambers[0] = ambersOne;
+        out.ambers[1] = ambersTwo;
+        out.hash = Zobrist.hash(out);
+        return out;
+    }
+
+    /**
+     * Setzt eine Figur auf ein leeres Feld, etwa um Stellungen ohne Spielverlauf aufzubauen.
+     *
+     * @param sq Ein leeres Feld
+     * @param type {@link PieceType#ordinal()} der Figur
+     * @param team Index des Teams
+     * @param height 1 oder 2
+     */
+    public void place(int sq, int type, int team, int height) {
+        put(sq, type, team, height);
+        hash ^= Zobrist.piece(type, team, height, sq);
+    }
+
+    /**
+     * Entfernt die Figur von einem Feld, Gegenstück zu {@link #place(int, int, int, int)}.
+     *
+     * @param sq Ein Feld, auf dem eine Figur steht
+     */
+    public void remove(int sq) {
+        long bit = 1L << sq;
+        hash ^= Zobrist.piece(type(sq), team(sq), height(sq), sq);
+        teams[0] &= ~bit;
+        teams[1] &= ~bit;
+        for (int t = 0; t < types.length; t++) {
+            types[t] &= ~bit;
+        }
+        towers &= ~bit;
+    }
+
+    /**
+     * @return Ein neues Spielfeld des Plugins mit den gleichen Figuren
+     */
+    public Board toBoard() {
+        Map<Coordinates, Piece> pieces = new HashMap<>();
+
+        for (long m = teams[0] | teams[1]; m != 0; m &= m - 1) {
+            int sq = Long.numberOfTrailingZeros(m);
+            pieces.put(COORDINATES[sq], new Piece(TYPES[type(sq)], TEAMS[team(sq)], height(sq)));
+        }
+
+        return new Board(pieces);
+    }
+
+    /**
+     * @return Eine unabhängige Kopie dieses BitBoards
+     */
+    public BitBoard copy() {
+        BitBoard out = new BitBoard();
+        System.arraycopy(teams, 0, out.teams, 0, 2);
+        System.arraycopy(types, 0, out.types, 0, types.length);
+        System.arraycopy(ambers, 0, out.ambers, 0, 2);
+        out.towers = towers;
+        out.turn = turn;
+        out.hash = hash;
+        return out;
+    }
+
+    private void put(int sq, int type, int team, int count) {
+        long bit = 1L << sq;
+        teams[team] |= bit;
+        types[type] |= bit;
+        if (count > 1) {
+            towers |= bit;
+        }
+    }
+
+    // ----------------------
+    // Felder und Koordinaten
+    // ----------------------
+
+    public static int square(int x, int y) {
+        return (y << 3) | x;
+    }
+
+    public static int square(Coordinates c) {
+        return square(c.getX(), c.getY());
+    }
+
+    public static int x(int sq) {
+        return sq & 7;
+    }
+
+    public static int y(int sq) {
+        return sq >>> 3;
+    }
+
+    /**
+     * @param sq Ein Feldindex
+     * @return Die (geteilte, unveränderliche) Koordinate des Feldes
+     */
+    public static Coordinates coordinates(int sq) {
+        return COORDINATES[sq];
+    }
+
+    /**
+     * @param mask Eine Menge von Feldern
+     * @return Die Koordinaten aller Felder der Maske
+     */
+    public static List<Coordinates> toCoordinates(long mask) {
+        List<Coordinates> out = new ArrayList<>(Long.bitCount(mask));
+        for (long m = mask; m != 0; m &= m - 1) {
+            out.add(COORDINATES[Long.numberOfTrailingZeros(m)]);
+        }
+        return out;
+    }
+
+    /**
+     * @param team Index eines Teams
+     * @return Die x-Koordinate der Linie, auf der leichte Figuren des Teams zu Bernstein werden
+     */
+    public static int zielLinie(int team) {
+        return team == 0 ? 7 : 0;
+    }
+
+    public static Team teamOf(int team) {
+        return TEAMS[team];
+    }
+
+    // -------------
+    // Feldinhalte
+    // -------------
+
+    public long getTeam(int team) {
+        return teams[team];
+    }
+
+    public long getType(int type) {
+        return types[type];
+    }
+
+    public long getTowers() {
+        return towers;
+    }
+
+    public long getOccupied() {
+        return teams[0] | teams[1];
+    }
+
+    public int getAmbers(int team) {
+        return ambers[team];
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * @return Den Zobrist-Hash der Stellung
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @return Index des Teams, das am Zug ist
+     */
+    public int getCurrentTeam() {
+        return turn & 1;
+    }
+
+    /**
+     * @return Index des Teams auf dem Feld oder -1, wenn das Feld leer ist
+     */
+    public int team(int sq) {
+        long bit = 1L << sq;
+        if ((teams[0] & bit) != 0) return 0;
+        if ((teams[1] & bit) != 0) return 1;
+        return -1;
+    }
+
+    /**
+     * @return {@link PieceType#ordinal()} der Figur auf dem Feld oder -1, wenn das Feld leer ist
+     */
+    public int type(int sq) {
+        long bit = 1L << sq;
+        for (int t = 0; t < types.length; t++) {
+            if ((types[t] & bit) != 0) return t;
+        }
+        return -1;
+    }
+
+    public boolean isTower(int sq) {
+        return (towers & (1L << sq)) != 0;
+    }
+
+    /**
+     * @return Anzahl der Figuren auf dem Feld (0, 1 oder 2)
+     */
+    public int height(int sq) {
+        long bit = 1L << sq;
+        if (((teams[0] | teams[1]) & bit) == 0) return 0;
+        return (towers & bit) != 0 ? 2 : 1;
+    }
+
+    // ---------------
+    // Züge simulieren
+    // ---------------
+
+    /**
+     * Führt einen Zug aus. Der Zug muss gültig sein, auf dem Startfeld muss also eine Figur stehen und auf dem Zielfeld
+     * darf keine Figur des gleichen Teams stehen. Das Team muss aber nicht am Zug sein.
+     *
+     * @param from Startfeld
+     * @param to Zielfeld
+     * @return Ein Wert, mit dem der Zug über {@link #unmake(int, int, int)} zurückgenommen werden kann
+     */
+    public int make(int from, int to) {
+        long f = 1L << from;
+        long t = 1L << to;
+        int team = (teams[0] & f) != 0 ? 0 : 1;
+        int moverType = type(from);
+        int undo = (moverType << UNDO_MOVER_TYPE_SHIFT) | (team << UNDO_MOVER_TEAM_SHIFT);
+        int height = 1;
+
+        if ((towers & f) != 0) {
+            undo |= UNDO_MOVER_TOWER;
+            height = 2;
+        }
+        hash ^= Zobrist.piece(moverType, team, height, from);
+        teams[team] &= ~f;
+        types[moverType] &= ~f;
+        towers &= ~f;
+
+        // Schlagen: die geschlagene Figur kommt unter die schlagende
+        if ((teams[1 - team] & t) != 0) {
+            int capturedType = type(to);
+            int capturedHeight = (towers & t) != 0 ? 2 : 1;
+            undo |= capturedType + 1;
+            if (capturedHeight == 2) {
+                undo |= UNDO_CAPTURED_TOWER;
+            }
+            height += capturedHeight;
+            hash ^= Zobrist.piece(capturedType, 1 - team, capturedHeight, to);
+            teams[1 - team] &= ~t;
+            types[capturedType] &= ~t;
+            towers &= ~t;
+        }
+
+        // Ab drei Figuren oder wenn eine leichte Figur die gegnerische Grundlinie erreicht, wird sie zu Bernstein
+        if (height >= 3 || (moverType != ROBBE && x(to) == zielLinie(team))) {
+            hash ^= Zobrist.ambers(team, ambers[team]) ^ Zobrist.ambers(team, ambers[team] + 1);
+            ambers[team]++;
+            undo |= UNDO_AMBER;
+        } else {
+            hash ^= Zobrist.piece(moverType, team, height, to);
+            teams[team] |= t;
+            types[moverType] |= t;
+            if (height == 2) {
+                towers |= t;
+            }
+        }
+
+        hash ^= Zobrist.turn(turn) ^ Zobrist.turn(turn + 1);
+        turn++;
+        return undo;
+    }
+
+    /**
+     * Nimmt einen mit {@link #make(int, int)} ausgeführten Zug zurück. Züge müssen in umgekehrter Reihenfolge
+     * zurückgenommen werden.
+     *
+     * @param from Startfeld des Zuges
+     * @param to Zielfeld des Zuges
+     * @param undo Rückgabewert von make
+     */
+    public void unmake(int from, int to, int undo) {
+        long f = 1L << from;
+        long t = 1L << to;
+        int team = moverTeam(undo);
+        int moverType = moverType(undo);
+
+        hash ^= Zobrist.turn(turn) ^ Zobrist.turn(turn - 1);
+        turn--;
+
+        if ((undo & UNDO_AMBER) != 0) {
+            hash ^= Zobrist.ambers(team, ambers[team]) ^ Zobrist.ambers(team, ambers[team] - 1);
+            ambers[team]--;
+        } else {
+            hash ^= Zobrist.piece(moverType, team, (towers & t) != 0 ? 2 : 1, to);
+            teams[team] &= ~t;
+            types[moverType] &= ~t;
+            towers &= ~t;
+        }
+
+        teams[team] |= f;
+        types[moverType] |= f;
+        if ((undo & UNDO_MOVER_TOWER) != 0) {
+            towers |= f;
+        }
+        hash ^= Zobrist.piece(moverType, team, moverWasTower(undo) ? 2 : 1, from);
+
+        int captured = capturedType(undo);
+        if (captured >= 0) {
+            teams[1 - team] |= t;
+            types[captured] |= t;
+            if ((undo & UNDO_CAPTURED_TOWER) != 0) {
+                towers |= t;
+            }
+            hash ^= Zobrist.piece(captured, 1 - team, capturedWasTower(undo) ? 2 : 1, to);
+        }
+    }
+
+    /**
+     * @param undo Rückgabewert von make
+     * @return Ob der Zug eine Figur geschlagen hat
+     */
+    public static boolean isCapture(int undo) {
+        return (undo & UNDO_CAPTURED_TYPE) != 0;
+    }
+
+    /**
+     * @param undo Rückgabewert von make
+     * @return Ob der Zug einen Bernstein gebracht hat
+     */
+    public static boolean isAmber(int undo) {
+        return (undo & UNDO_AMBER) != 0;
+    }
+
+    /**
+     * @param undo Rückgabewert von make
+     * @return Index des Teams, das gezogen hat
+     */
+    public static int moverTeam(int undo) {
+        return (undo >>> UNDO_MOVER_TEAM_SHIFT) & 1;
+    }
+
+    /**
+     * @param undo Rückgabewert von make
+     * @return {@link PieceType#ordinal()} der gezogenen Figur
+     */
+    public static int moverType(int undo) {
+        return (undo >>> UNDO_MOVER_TYPE_SHIFT) & 0x7;
+    }
+
+    /**
+     * @param undo Rückgabewert von make
+     * @return Ob vor dem Zug ein Turm auf dem Startfeld stand
+     */
+    public static boolean moverWasTower(int undo) {
+        return (undo & UNDO_MOVER_TOWER) != 0;
+    }
+
+    /**
+     * @param undo Rückgabewert von make
+     * @return {@link PieceType#ordinal()} der geschlagenen Figur oder -1
+     */
+    public static int capturedType(int undo) {
+        return (undo & UNDO_CAPTURED_TYPE) - 1;
+    }
+
+    /**
+     * @param undo Rückgabewert von make
+     * @return Ob die geschlagene Figur ein Turm war
+     */
+    public static boolean capturedWasTower(int undo) {
+        return (undo & UNDO_CAPTURED_TOWER) != 0;
+    }
+
+    // -----------------
+    // Bedroht und gedeckt
+    // -----------------
+
+    /**
+     * @param sq Ein Feld, auf dem eine Figur steht
+     * @return Alle Felder, die die Figur erreichen könnte, unabhängig davon, was dort steht
+     */
+    public long span(int sq) {
+        return Attacks.span(type(sq), team(sq), sq);
+    }
+
+    /**
+     * @param sq Ein Feld, auf dem eine Figur steht
+     * @return Alle Zielfelder der Figur
+     */
+    public long targets(int sq) {
+        return span(sq) & ~teams[team(sq)];
+    }
+
+    /**
+     * @param team Index eines Teams
+     * @param onlyTowers Ob nur Türme berücksichtigt werden
+     * @return Alle Felder, die von Figuren des Teams erreicht werden
+     */
+    public long attacks(int team, boolean onlyTowers) {
+        long out = 0;
+        for (long m = onlyTowers ? teams[team] & towers : teams[team]; m != 0; m &= m - 1) {
+            out |= span(Long.numberOfTrailingZeros(m));
+        }
+        return out;
+    }
+
+    /**
+     * @param sq Ein beliebiges Feld
+     * @param team Index eines Teams
+     * @return Alle Figuren des Teams, die das Feld erreichen könnten
+     */
+    public long attackers(int sq, int team) {
+        long out = 0;
+        for (int t = 0; t < types.length; t++) {
+            out |= Attacks.reachedFrom(t, team, sq) & types[t];
+        }
+        return out & teams[team];
+    }
+
+    /**
+     * Gedeckte Felder: eine Figur des Teams könnte dort zurückschlagen. Türme können nicht gedeckt werden.
+     *
+     * @param team Index eines Teams
+     * @return Alle Felder, die für das Team gedeckt sind
+     */
+    public long gedeckteFelder(int team) {
+        return attacks(team, false) & ~towers;
+    }
+
+    /**
+     * Bedrohte Felder: der Gegner kann dorthin ziehen und das Feld ist nicht gedeckt, oder der Gegner kann mit einem
+     * Turm dorthin ziehen. Entspricht {@code GameInfo.isBedroht} für jedes Feld.
+     *
+     * @param team Index des Teams, für das geprüft wird
+     * @return Alle Felder, die für das Team bedroht sind
+     */
+    public long bedrohteFelder(int team) {
+        int other = 1 - team;
+        long free = ~teams[other];
+        return (attacks(other, true) & free) | (attacks(other, false) & free & ~gedeckteFelder(team));
+    }
+
+    /**
+     * @param team Index eines Teams
+     * @return Alle Figuren des Teams, die bedroht sind
+     */
+    public long bedroht(int team) {
+        return teams[team] & bedrohteFelder(team);
+    }
+
+    /**
+     * @param team Index eines Teams
+     * @return Alle Figuren des Teams, die gedeckt sind
+     */
+    public long gedeckt(int team) {
+        return teams[team] & gedeckteFelder(team);
+    }
+
+    public boolean isBedroht(int sq, int team) {
+        return (bedrohteFelder(team) & (1L << sq)) != 0;
+    }
+
+    public boolean isGedeckt(int sq, int team) {
+        return (gedeckteFelder(team) & (1L << sq)) != 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BitBoard)) return false;
+        BitBoard other = (BitBoard) o;
+        return towers == other.towers && turn == other.turn && hash == other.hash && Arrays.equals(teams, other.teams)
+                && Arrays.equals(types, other.types) && Arrays.equals(ambers, other.ambers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(Arrays.hashCode(teams), Arrays.hashCode(types), towers, turn);
+    }
+}
@@ -0,0 +1,171 @@
+package sc.player2022.logic.bitboard;
+
+import sc.plugin2022.GameState;
+import sc.plugin2022.Move;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zuggenerator auf einem {@link BitBoard}, der ohne {@link GameState} auskommt. Die Züge werden als int in einen
+ * Speicher geschrieben, den der Aufrufer mitbringt und wiederverwenden kann; dabei wird nichts erzeugt.
+ * <p>
+ * Aufbau eines Zuges: Bits 0-5 Zielfeld, 6-11 Startfeld, 12-14 {@link sc.plugin2022.PieceType#ordinal()} der ziehenden
+ * Figur, Bit 15 gesetzt, wenn geschlagen wird. Die unteren 12 Bits sind damit die Kodierung from << 6 | to, wie sie
+ * die {@link sc.player2022.logic.search.Search} und die Transpositionstabelle verwenden. 0 ist kein gültiger Zug.
+ */
+public final class MoveGenerator {
+    /** Kein Team hat mehr als 8 Figuren mit je höchstens 8 Zielfeldern */
+    public static final int MAX_MOVES = 64;
+
+    /** Maske für die Kodierung from << 6 | to */
+    public static final int SQUARES = 0xFFF;
+
+    private static final int TYPE_SHIFT = 12;
+    private static final int CAPTURE = 1 << 15;
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Schreibt alle Züge des Teams in den Speicher, schlagende Züge zuerst.
+     *
+     * @param b Ein beliebiges Spielfeld
+     * @param team Index des Teams, dessen Züge erzeugt werden
+     * @param moves Speicher für mindestens {@link #MAX_MOVES} Züge
+     * @return Anzahl der Züge
+     */
+    public static int generate(BitBoard b, int team, int[] moves) {
+        int count = generateCaptures(b, team, moves, 0);
+        return generateQuiets(b, team, moves, count);
+    }
+
+    /**
+     * Schreibt alle schlagenden Züge des Teams ab Position start in den Speicher.
+     *
+     * @return Position hinter dem letzten geschriebenen Zug
+     */
+    public static int generateCaptures(BitBoard b, int team, int[] moves, int start) {
+        return generate(b, team, b.getTeam(1 - team), CAPTURE, moves, start);
+    }
+
+    /**
+     * Schreibt alle nicht schlagenden Züge des Teams ab Position start in den Speicher.
+     *
+     * @return Position hinter dem letzten geschriebenen Zug
+     */
+    public static int generateQuiets(BitBoard b, int team, int[] moves, int start) {
+        return generate(b, team, ~b.getOccupied(), 0, moves, start);
+    }
+
+    private static int generate(BitBoard b, int team, long allowed, int flags, int[] moves, int count) {
+        for (long pieces = b.getTeam(team); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            int type = b.type(from);
+
+            for (long targets = Attacks.span(type, team, from) & allowed; targets != 0; targets &= targets - 1) {
+                moves[count++] = flags | type << TYPE_SHIFT | from << 6 | Long.numberOfTrailingZeros(targets);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Hängt alle Züge des Teams an die Liste an, schlagende Züge zuerst, in derselben Reihenfolge wie
+     * {@link #generate(BitBoard, int, int[])}.
+     */
+    public static void generate(BitBoard b, int team, MoveList out) {
+        generateCaptures(b, team, out);
+        generate(b, team, ~b.getOccupied(), 0, out);
+    }
+
+    /**
+     * Hängt alle schlagenden Züge des Teams an die Liste an.
+     */
+    public static void generateCaptures(BitBoard b, int team, MoveList out) {
+        generate(b, team, b.getTeam(1 - team), CAPTURE, out);
+    }
+
+    private static void generate(BitBoard b, int team, long allowed, int flags, MoveList out) {
+        for (long pieces = b.getTeam(team); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            int type = b.type(from);
+
+            for (long targets = Attacks.span(type, team, from) & allowed; targets != 0; targets &= targets - 1) {
+                out.add(flags | type << TYPE_SHIFT | from << 6 | Long.numberOfTrailingZeros(targets));
+            }
+        }
+    }
+
+    /**
+     * Prüft einen gespeicherten Zug, etwa aus dem Eröffnungsbuch, ohne die Züge der Stellung zu erzeugen.
+     *
+     * @param b Ein beliebiges Spielfeld
+     * @param move Ein Zug in einer der beiden Kodierungen
+     * @return Ob das Team am Zug den Zug ausführen kann
+     */
+    public static boolean isLegal(BitBoard b, int move) {
+        if (move == 0) {
+            return false;
+        }
+        int from = from(move);
+        return (b.getTeam(b.getCurrentTeam()) & (1L << from)) != 0 && (b.targets(from) & (1L << to(move))) != 0;
+    }
+
+    // -----------------
+    // Züge auslesen
+    // -----------------
+
+    public static int from(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int to(int move) {
+        return move & 63;
+    }
+
+    /**
+     * @return {@link sc.plugin2022.PieceType#ordinal()} der ziehenden Figur
+     */
+    public static int type(int move) {
+        return (move >>> TYPE_SHIFT) & 0x7;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * @return Den Zug als from << 6 | to, ohne Typ und Schlagen
+     */
+    public static int squares(int move) {
+        return move & SQUARES;
+    }
+
+    /**
+     * @param move Ein Zug in einer der beiden Kodierungen
+     * @return Den Zug für das Plugin oder null, wenn kein Zug angegeben ist
+     */
+    public static Move toMove(int move) {
+        if (move == 0) {
+            return null;
+        }
+        return new Move(BitBoard.coordinates(from(move)), BitBoard.coordinates(to(move)));
+    }
+
+    /**
+     * @param b Ein beliebiges Spielfeld
+     * @param team Index des Teams
+     * @return Alle Züge des Teams als Züge des Plugins
+     */
+    public static List<Move> toMoves(BitBoard b, int team) {
+        int[] moves = new int[MAX_MOVES];
+        int count = generate(b, team, moves);
+
+        List<Move> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            out.add(toMove(moves[i]));
+        }
+        return out;
+    }
+}
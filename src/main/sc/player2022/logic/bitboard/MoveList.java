@@ -0,0 +1,110 @@
+package sc.player2022.logic.bitboard;
+
+import sc.plugin2022.Move;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Liste von Zügen in der Kodierung des {@link MoveGenerator}, ohne Objekte pro Zug. Neben den Zügen wird pro Startfeld
+ * eine Maske der Zielfelder geführt, damit {@link #contains(int, int)} nur ein Bit prüft statt die Liste zu durchsuchen
+ * oder wie {@link List#contains(Object)} jeden {@link Move} zu vergleichen.
+ * <p>
+ * Eine Liste kann mit {@link #clear()} wiederverwendet werden. Jeder Zug darf nur einmal enthalten sein, was für die
+ * Züge einer Stellung immer gilt.
+ */
+public final class MoveList {
+    private final int[] moves;
+    private int size;
+
+    /** Zielfelder pro Startfeld */
+    private final long[] targets = new long[64];
+
+    /** Startfelder, für die es Züge gibt */
+    private long origins;
+
+    /**
+     * @param capacity Höchstens so viele Züge passen in die Liste
+     */
+    public MoveList(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    /**
+     * Eine Liste, in die alle Züge einer Stellung passen
+     */
+    public MoveList() {
+        this(MoveGenerator.MAX_MOVES);
+    }
+
+    /**
+     * @param move Ein Zug, wie ihn der {@link MoveGenerator} erzeugt, oder nur als from << 6 | to
+     */
+    public void add(int move) {
+        int from = MoveGenerator.from(move);
+        moves[size++] = move;
+        targets[from] |= 1L << MoveGenerator.to(move);
+        origins |= 1L << from;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Leert die Liste; es werden nur die benutzten Masken zurückgesetzt
+     */
+    public void clear() {
+        for (long m = origins; m != 0; m &= m - 1) {
+            targets[Long.numberOfTrailingZeros(m)] = 0;
+        }
+        origins = 0;
+        size = 0;
+    }
+
+    public boolean contains(int from, int to) {
+        return (targets[from] & (1L << to)) != 0;
+    }
+
+    public boolean contains(Move m) {
+        return contains(BitBoard.square(m.getFrom()), BitBoard.square(m.getTo()));
+    }
+
+    /**
+     * @return Alle Zielfelder der Züge von einem Feld als Maske
+     */
+    public long targets(int from) {
+        return targets[from];
+    }
+
+    /**
+     * @return Alle Startfelder der Züge als Maske
+     */
+    public long origins() {
+        return origins;
+    }
+
+    /**
+     * @return Die Züge als Züge des Plugins, in der Reihenfolge der Liste
+     */
+    public List<Move> toMoves() {
+        List<Move> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            out.add(MoveGenerator.toMove(moves[i]));
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return toMoves().toString();
+    }
+}
@@ -0,0 +1,60 @@
+package sc.player2022.logic.bitboard;
+
+import sc.plugin2022.Coordinates;
+
+import java.util.Collection;
+
+/**
+ * Mengen von Feldern als long: Bit {@link BitBoard#square(int, int)} ist gesetzt, wenn das Feld enthalten ist. So
+ * geben auch {@link BitBoard} und {@link AttackMap} Felder zurück. Die Methoden hier ersetzen die Aufrufe auf
+ * {@code List<Coordinates>} und {@code Set<Coordinates>}, ohne Objekte zu erzeugen oder zu hashen.
+ */
+public final class SquareSet {
+    public static final long EMPTY = 0L;
+
+    private SquareSet() {
+    }
+
+    public static long of(int sq) {
+        return 1L << sq;
+    }
+
+    public static long of(Coordinates c) {
+        return of(BitBoard.square(c));
+    }
+
+    /**
+     * @param coordinates Beliebige Koordinaten auf dem Brett
+     * @return Die Menge der Felder
+     */
+    public static long of(Collection<Coordinates> coordinates) {
+        long out = EMPTY;
+        for (Coordinates c : coordinates) {
+            out |= of(c);
+        }
+        return out;
+    }
+
+    public static boolean contains(long set, int sq) {
+        return (set & (1L << sq)) != 0;
+    }
+
+    public static boolean contains(long set, Coordinates c) {
+        return contains(set, BitBoard.square(c));
+    }
+
+    public static int size(long set) {
+        return Long.bitCount(set);
+    }
+
+    public static boolean isEmpty(long set) {
+        return set == EMPTY;
+    }
+
+    /**
+     * @return Das Feld mit dem kleinsten Index; nur für nicht leere Mengen
+     */
+    public static int first(long set) {
+        return Long.numberOfTrailingZeros(set);
+    }
+}
@@ -0,0 +1,89 @@
+package sc.player2022.logic.bitboard;
+
+import sc.plugin2022.PieceType;
+
+import java.util.Random;
+
+/**
+ * Zufallsschlüssel für das Zobrist-Hashing von {@link BitBoard}s. Der Hash einer Stellung ist das XOR der Schlüssel
+ * aller Figuren (Feld, Typ, Team, Turmhöhe), des Zuges und der Bernsteine beider Teams. Dadurch kann er bei jedem Zug
+ * mit wenigen XORs aktualisiert werden.
+ * <p>
+ * Die Schlüssel werden mit einem festen Seed erzeugt, damit Hashes zwischen Läufen vergleichbar sind.
+ */
+public final class Zobrist {
+    private static final long SEED = 2022;
+
+    private static final int TYPES = PieceType.values().length;
+
+    /** Schlüssel nach Typ, Team, Höhe - 1 und Feld */
+    private static final long[][][][] PIECES = new long[TYPES][2][2][64];
+
+    /** Schlüssel nach Zug, enthält damit auch das Team, das am Zug ist */
+    private static final long[] TURNS = new long[64];
+
+    /** Schlüssel nach Team und Anzahl der Bernsteine */
+    private static final long[][] AMBERS = new long[2][8];
+
+    static {
+        Random random = new Random(SEED);
+
+        for (int type = 0; type < TYPES; type++) {
+            for (int team = 0; team < 2; team++) {
+                for (int height = 0; height < 2; height++) {
+                    for (int sq = 0; sq < 64; sq++) {
+                        PIECES[type][team][height][sq] = random.nextLong();
+                    }
+                }
+            }
+        }
+        for (int turn = 0; turn < TURNS.length; turn++) {
+            TURNS[turn] = random.nextLong();
+        }
+        for (int team = 0; team < 2; team++) {
+            // Keine Bernsteine tragen nichts bei, so ist der Hash eines Bretts ohne Spielstand nur der der Figuren
+            for (int count = 1; count < AMBERS[team].length; count++) {
+                AMBERS[team][count] = random.nextLong();
+            }
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param type {@link PieceType#ordinal()} der Figur
+     * @param team Index des Teams der Figur
+     * @param height Anzahl der Figuren auf dem Feld (1 oder 2)
+     * @param sq Feld der Figur
+     */
+    public static long piece(int type, int team, int height, int sq) {
+        return PIECES[type][team][height - 1][sq];
+    }
+
+    public static long turn(int turn) {
+        return TURNS[turn & (TURNS.length - 1)];
+    }
+
+    public static long ambers(int team, int count) {
+        return AMBERS[team][count & (AMBERS[team].length - 1)];
+    }
+
+    /**
+     * Berechnet den Hash einer Stellung vollständig neu. Während einer Suche wird der Hash stattdessen von
+     * {@link BitBoard#make(int, int)} aktualisiert.
+     *
+     * @param b Eine beliebige Stellung
+     * @return Den Zobrist-Hash der Stellung
+     */
+    public static long hash(BitBoard b) {
+        long hash = turn(b.getTurn()) ^ ambers(0, b.getAmbers(0)) ^ ambers(1, b.getAmbers(1));
+
+        for (long m = b.getOccupied(); m != 0; m &= m - 1) {
+            int sq = Long.numberOfTrailingZeros(m);
+            hash ^= piece(b.type(sq), b.team(sq), b.height(sq), sq);
+        }
+
+        return hash;
+    }
+}
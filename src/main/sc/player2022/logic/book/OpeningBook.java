@@ -0,0 +1,108 @@
+package sc.player2022.logic.book;
+
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.player2022.logic.bitboard.MoveGenerator;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Eröffnungsbuch: für häufige Stellungen der ersten Züge ein in Selbstspielen bewährter Zug. Die Datei wird vom
+ * {@link OpeningBookBuilder} erzeugt und beim Start in den Speicher eingeblendet (memory-mapped), eine Abfrage ist
+ * eine binäre Suche direkt in der Datei und erzeugt keine Objekte.
+ * <p>
+ * Aufbau der Datei (big endian): Kopf mit {@link #MAGIC}, Anzahl der Einträge, Anzahl der Züge, für die das Buch gilt,
+ * und einem freien int. Danach die Einträge nach Zobrist-Hash der Stellung ({@link BitBoard#getHash()}) aufsteigend
+ * sortiert, je 16 Byte: Hash (long), Zug als from << 6 | to (int), Anzahl der Spiele, aus denen der Zug stammt (int).
+ */
+public final class OpeningBook {
+    /** "OBK1" */
+    static final int MAGIC = 0x4F424B31;
+
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 16;
+
+    private final MappedByteBuffer buffer;
+    private final int entries;
+    private final int maxTurn;
+
+    private OpeningBook(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Keine Eröffnungsbuch-Datei");
+        }
+        this.entries = buffer.getInt(4);
+        this.maxTurn = buffer.getInt(8);
+        if (buffer.limit() < HEADER_BYTES + (long) entries * ENTRY_BYTES) {
+            throw new IllegalArgumentException("Eröffnungsbuch ist unvollständig");
+        }
+    }
+
+    /**
+     * Blendet eine Buchdatei in den Speicher ein. Die Datei wird danach nicht mehr gebraucht, offen bleibt nur die
+     * Einblendung.
+     *
+     * @param file Eine vom {@link OpeningBookBuilder} erzeugte Datei
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @param hash Zobrist-Hash einer Stellung
+     * @return Der Zug aus dem Buch als from << 6 | to oder 0, wenn die Stellung nicht im Buch ist
+     */
+    public int lookup(long hash) {
+        int low = 0;
+        int high = entries - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long key = buffer.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+            if (key < hash) {
+                low = mid + 1;
+            } else if (key > hash) {
+                high = mid - 1;
+            } else {
+                return buffer.getInt(HEADER_BYTES + mid * ENTRY_BYTES + 8);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * @param b Die aktuelle Stellung
+     * @return Der Zug aus dem Buch als from << 6 | to, wenn er in dieser Stellung gültig ist, sonst 0
+     */
+    public int probe(BitBoard b) {
+        if (b.getTurn() >= maxTurn) {
+            return 0;
+        }
+
+        int move = lookup(b.getHash());
+        // Schutz gegen Hash-Kollisionen und Dateien einer anderen Version
+        return MoveGenerator.isLegal(b, move) ? move : 0;
+    }
+
+    /**
+     * @return Anzahl der Stellungen im Buch
+     */
+    public int size() {
+        return entries;
+    }
+
+    /**
+     * @return Das Buch gilt für alle Züge davor
+     */
+    public int getMaxTurn() {
+        return maxTurn;
+    }
+}
@@ -0,0 +1,188 @@
+package sc.player2022.logic.book;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.player2022.logic.search.Search;
+import sc.player2022.logic.search.TranspositionTable;
+import sc.plugin2022.GameState;
+import sc.plugin2022.Move;
+import sc.plugin2022.Team;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Erzeugt ein {@link OpeningBook} aus Selbstspielen. Beide Seiten spielen mit der {@link Search}, in den ersten Zügen
+ * wird manchmal zufällig gezogen, damit verschiedene Eröffnungen entstehen. Für jede Stellung der ersten Züge wird
+ * gezählt, wie oft welcher Zug gespielt wurde und wie die Spiele für den Ziehenden ausgingen. Ins Buch kommt pro
+ * Stellung der Zug mit dem besten Ergebnis, wenn er oft genug gespielt wurde.
+ * <p>
+ * Da die Startaufstellung in jedem Spiel zufällig ist, werden aus jeder Startaufstellung {@link #GAMES_PER_START}
+ * Spiele gespielt; sonst käme fast keine Stellung oft genug vor.
+ * <p>
+ * Aufruf: {@code OpeningBookBuilder datei [spiele] [züge] [millisekunden pro zug]}
+ */
+public class OpeningBookBuilder {
+    private static final Logger log = LoggerFactory.getLogger(OpeningBookBuilder.class);
+
+    /** Wahrscheinlichkeit, in der Eröffnung zufällig zu ziehen */
+    private static final double EXPLORATION = 0.25;
+
+    /** So oft muss ein Zug mindestens gespielt worden sein, um ins Buch zu kommen */
+    private static final int MIN_GAMES = 3;
+
+    /** Anzahl der Spiele aus derselben Startaufstellung */
+    static final int GAMES_PER_START = 8;
+
+    private final int maxTurn;
+    private final long millisPerMove;
+    private final Random random;
+
+    /** Pro Stellung und Zug: Summe der Ergebnisse (Sieg 1, Unentschieden 0.5) und Anzahl der Spiele */
+    private final Map<Long, Map<Integer, double[]>> stats = new HashMap<>();
+
+    private final Search[] players = {
+            new Search(new TranspositionTable(16)),
+            new Search(new TranspositionTable(16))
+    };
+
+    /**
+     * @param maxTurn Das Buch gilt für alle Züge davor
+     * @param millisPerMove Zeit für die Suche pro Zug
+     * @param seed Startwert für die zufälligen Züge
+     */
+    public OpeningBookBuilder(int maxTurn, long millisPerMove, long seed) {
+        this.maxTurn = maxTurn;
+        this.millisPerMove = millisPerMove;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Spielt ein Spiel und zählt die Züge der Eröffnung
+     *
+     * @param state Der Startzustand, wird dabei verändert
+     */
+    public void playGame(GameState state) {
+        List<long[]> opening = new ArrayList<>();
+
+        while (!state.isOver()) {
+            List<Move> moves = state.getPossibleMoves();
+            Move move;
+            if (state.getTurn() < maxTurn && random.nextDouble() < EXPLORATION) {
+                move = moves.get(random.nextInt(moves.size()));
+            } else {
+                move = players[state.getCurrentTeam().getIndex()].bestMove(state, millisPerMove);
+                if (move == null) {
+                    move = moves.get(0);
+                }
+            }
+
+            if (state.getTurn() < maxTurn) {
+                int packed = BitBoard.square(move.getFrom()) << 6 | BitBoard.square(move.getTo());
+                opening.add(new long[]{BitBoard.of(state).getHash(), packed, state.getCurrentTeam().getIndex()});
+            }
+            state.performMove(move);
+        }
+
+        int ambersOne = state.getPointsForTeam(Team.ONE);
+        int ambersTwo = state.getPointsForTeam(Team.TWO);
+        for (long[] entry : opening) {
+            int team = (int) entry[2];
+            int own = team == 0 ? ambersOne : ambersTwo;
+            int other = team == 0 ? ambersTwo : ambersOne;
+            double result = own > other ? 1 : own == other ? 0.5 : 0;
+
+            double[] s = stats.computeIfAbsent(entry[0], k -> new HashMap<>())
+                    .computeIfAbsent((int) entry[1], k -> new double[2]);
+            s[0] += result;
+            s[1]++;
+        }
+    }
+
+    /**
+     * Schreibt das Buch.
+     *
+     * @return Anzahl der Stellungen im Buch
+     */
+    public int write(Path file) throws IOException {
+        // Nach Hash sortiert, wie es die binäre Suche im OpeningBook braucht
+        TreeMap<Long, int[]> book = new TreeMap<>();
+
+        for (Map.Entry<Long, Map<Integer, double[]>> position : stats.entrySet()) {
+            int bestMove = 0;
+            int bestGames = 0;
+            double bestScore = -1;
+
+            for (Map.Entry<Integer, double[]> move : position.getValue().entrySet()) {
+                double[] s = move.getValue();
+                if (s[1] < MIN_GAMES) {
+                    continue;
+                }
+                // Geglättet, damit wenige Spiele nicht als sicherer Sieg zählen
+                double score = (s[0] + 1) / (s[1] + 2);
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = move.getKey();
+                    bestGames = (int) s[1];
+                }
+            }
+
+            if (bestMove != 0) {
+                book.put(position.getKey(), new int[]{bestMove, bestGames});
+            }
+        }
+
+        try (OutputStream out = Files.newOutputStream(file);
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+            data.writeInt(OpeningBook.MAGIC);
+            data.writeInt(book.size());
+            data.writeInt(maxTurn);
+            data.writeInt(0);
+            for (Map.Entry<Long, int[]> entry : book.entrySet()) {
+                data.writeLong(entry.getKey());
+                data.writeInt(entry.getValue()[0]);
+                data.writeInt(entry.getValue()[1]);
+            }
+        }
+
+        return book.size();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Aufruf: OpeningBookBuilder datei [spiele] [züge] [millisekunden pro zug]");
+            System.exit(2);
+        }
+
+        Path file = Paths.get(args[0]);
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int turns = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        long millis = args.length > 3 ? Long.parseLong(args[3]) : 50;
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(turns, millis, 2022);
+        GameState start = null;
+        for (int i = 1; i <= games; i++) {
+            if (i % GAMES_PER_START == 1) {
+                start = new GameState();
+            }
+            builder.playGame(start.clone());
+            if (i % 10 == 0) {
+                log.info("{} von {} Spielen", i, games);
+            }
+        }
+
+        log.info("{} Stellungen in {} geschrieben", builder.write(file), file);
+    }
+}
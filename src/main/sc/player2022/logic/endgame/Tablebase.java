@@ -0,0 +1,164 @@
+package sc.player2022.logic.endgame;
+
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.player2022.logic.bitboard.MoveGenerator;
+import sc.plugin2022.PieceType;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Endspieldatenbank für Stellungen, in denen jedes Team höchstens noch eine Figur (oder einen Turm) hat und nur noch
+ * wenige Züge bis zum Spielende bleiben. Für jede solche Stellung steht darin, ob das Team am Zug bei bestem Spiel
+ * gewinnt, unentschieden spielt oder verliert, und ein bester Zug. Die Datei wird vom {@link TablebaseGenerator}
+ * berechnet und beim Start in den Speicher eingeblendet; eine Abfrage ist ein Zugriff auf einen berechneten Index.
+ * <p>
+ * Aufbau der Datei (big endian): Kopf mit {@link #MAGIC}, Anzahl der restlichen Züge, bis zu der die Datenbank reicht,
+ * und zwei freien ints. Danach ein short pro Stellung in der Reihenfolge von {@link #index(int, int, int, int, int)}:
+ * Bits 0-11 bester Zug als from << 6 | to, Bits 12-13 Ergebnis ({@link #LOSS}, {@link #DRAW}, {@link #WIN}, 0 für
+ * Stellungen, die im Spiel nicht vorkommen können).
+ */
+public final class Tablebase {
+    /** "TBS1" */
+    static final int MAGIC = 0x54425331;
+
+    static final int HEADER_BYTES = 16;
+
+    public static final int LOSS = 1;
+    public static final int DRAW = 2;
+    public static final int WIN = 3;
+
+    /** Letzter Zug, nach dem das Spiel endet */
+    static final int LAST_TURN = 60;
+
+    private static final int TYPES = PieceType.values().length;
+
+    /** Zustände der Figur eines Teams: keine Figur oder Typ, Höhe und Feld */
+    static final int PIECE_STATES = 1 + TYPES * 2 * 64;
+
+    /** Bernsteine pro Team: 0, 1 oder 2 */
+    static final int AMBER_STATES = 3;
+
+    /** Stellungen pro Anzahl restlicher Züge */
+    static final int POSITIONS = AMBER_STATES * AMBER_STATES * PIECE_STATES * PIECE_STATES;
+
+    private final MappedByteBuffer buffer;
+    private final int maxRemaining;
+
+    private Tablebase(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Keine Endspieldatenbank");
+        }
+        this.maxRemaining = buffer.getInt(4);
+        if (buffer.limit() < HEADER_BYTES + (long) maxRemaining * POSITIONS * 2) {
+            throw new IllegalArgumentException("Endspieldatenbank ist unvollständig");
+        }
+    }
+
+    /**
+     * Blendet eine Datei des {@link TablebaseGenerator} in den Speicher ein.
+     */
+    public static Tablebase open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Tablebase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @param remaining Restliche Züge bis zum Spielende, ab 1
+     * @param ambersOne Bernsteine von Team ONE
+     * @param ambersTwo Bernsteine von Team TWO
+     * @param pieceOne Figur von Team ONE, siehe {@link #pieceState(BitBoard, int)}
+     * @param pieceTwo Figur von Team TWO
+     * @return Position der Stellung in der Datenbank
+     */
+    static long index(int remaining, int ambersOne, int ambersTwo, int pieceOne, int pieceTwo) {
+        return (((long) (remaining - 1) * AMBER_STATES * AMBER_STATES + ambersOne * AMBER_STATES + ambersTwo)
+                * PIECE_STATES + pieceOne) * PIECE_STATES + pieceTwo;
+    }
+
+    /**
+     * @return 0, wenn das Team keine Figur hat, sonst 1 + (Typ * 2 + Höhe - 1) * 64 + Feld; -1, wenn es mehr als eine
+     * Figur hat
+     */
+    static int pieceState(BitBoard b, int team) {
+        long pieces = b.getTeam(team);
+        if (pieces == 0) {
+            return 0;
+        }
+        if ((pieces & (pieces - 1)) != 0) {
+            return -1;
+        }
+        int sq = Long.numberOfTrailingZeros(pieces);
+        return 1 + (b.type(sq) * 2 + b.height(sq) - 1) * 64 + sq;
+    }
+
+    /**
+     * @param b Eine beliebige Stellung
+     * @return Den Eintrag der Stellung oder 0, wenn sie nicht in der Datenbank ist
+     */
+    public int probe(BitBoard b) {
+        int remaining = LAST_TURN - b.getTurn();
+        if (remaining < 1 || remaining > maxRemaining || b.getAmbers(0) >= AMBER_STATES
+                || b.getAmbers(1) >= AMBER_STATES) {
+            return 0;
+        }
+
+        int pieceOne = pieceState(b, 0);
+        int pieceTwo = pieceState(b, 1);
+        if (pieceOne < 0 || pieceTwo < 0) {
+            return 0;
+        }
+
+        long index = index(remaining, b.getAmbers(0), b.getAmbers(1), pieceOne, pieceTwo);
+        return buffer.getShort((int) (HEADER_BYTES + index * 2)) & 0xFFFF;
+    }
+
+    /**
+     * @param b Die aktuelle Stellung
+     * @return Den besten Zug aus der Datenbank als from << 6 | to, wenn die Stellung darin ist und der Zug gültig ist,
+     * sonst 0
+     */
+    public int bestMove(BitBoard b) {
+        int entry = probe(b);
+        if (result(entry) == 0) {
+            return 0;
+        }
+
+        int move = move(entry);
+        return MoveGenerator.isLegal(b, move) ? move : 0;
+    }
+
+    /**
+     * @param entry Ein Eintrag aus {@link #probe(BitBoard)}
+     * @return {@link #WIN}, {@link #DRAW}, {@link #LOSS} für das Team am Zug oder 0
+     */
+    public static int result(int entry) {
+        return (entry >>> 12) & 0x3;
+    }
+
+    /**
+     * @param entry Ein Eintrag aus {@link #probe(BitBoard)}
+     * @return Der beste Zug als from << 6 | to oder 0
+     */
+    public static int move(int entry) {
+        return entry & MoveGenerator.SQUARES;
+    }
+
+    static int entry(int result, int move) {
+        return result << 12 | move;
+    }
+
+    /**
+     * @return Die Datenbank gilt, wenn höchstens so viele Züge bis zum Spielende bleiben
+     */
+    public int getMaxRemaining() {
+        return maxRemaining;
+    }
+}
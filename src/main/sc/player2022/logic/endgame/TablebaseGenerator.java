@@ -0,0 +1,196 @@
+package sc.player2022.logic.endgame;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.player2022.logic.bitboard.MoveGenerator;
+import sc.plugin2022.PieceType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static sc.player2022.logic.endgame.Tablebase.*;
+
+/**
+ * Berechnet die {@link Tablebase} rückwärts vom Spielende aus: Stellungen mit einem restlichen Zug werden direkt
+ * bewertet, jede weitere Ebene nur über die Einträge der Ebene davor. Dafür reicht es, immer nur die letzte Ebene im
+ * Speicher zu halten.
+ * <p>
+ * Es gelten die Regeln der {@link sc.player2022.logic.search.Search}: das Spiel endet nach Zug 60 oder wenn am Ende
+ * einer Runde ein Team zwei Bernsteine hat, wer nicht mehr ziehen kann, verliert. Bei Gleichstand nach Bernsteinen
+ * zählt das Spiel als unentschieden.
+ * <p>
+ * Aufruf: {@code TablebaseGenerator datei [restliche züge]}
+ */
+public class TablebaseGenerator {
+    private static final Logger log = LoggerFactory.getLogger(TablebaseGenerator.class);
+
+    private static final int ROBBE = PieceType.Robbe.ordinal();
+
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    /** Einträge für einen restlichen Zug weniger */
+    private short[] previous;
+
+    /**
+     * Berechnet alle Ebenen und schreibt sie in die Datei.
+     *
+     * @param maxRemaining Anzahl der restlichen Züge, bis zu der gerechnet wird
+     */
+    public void generate(Path file, int maxRemaining) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(maxRemaining);
+            out.writeInt(0);
+            out.writeInt(0);
+
+            for (int remaining = 1; remaining <= maxRemaining; remaining++) {
+                long start = System.nanoTime();
+                short[] current = solve(remaining);
+                for (short entry : current) {
+                    out.writeShort(entry);
+                }
+                previous = current;
+                log.info("{} restliche Züge berechnet in {}ms", remaining, (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+    }
+
+    private short[] solve(int remaining) {
+        short[] table = new short[POSITIONS];
+        int turn = LAST_TURN - remaining;
+        int team = turn & 1;
+
+        for (int ambersOne = 0; ambersOne < AMBER_STATES; ambersOne++) {
+            for (int ambersTwo = 0; ambersTwo < AMBER_STATES; ambersTwo++) {
+                if (!reachable(turn, ambersOne, ambersTwo)) {
+                    continue;
+                }
+
+                BitBoard b = BitBoard.empty(turn, ambersOne, ambersTwo);
+                for (int pieceOne = 0; pieceOne < PIECE_STATES; pieceOne++) {
+                    if (!place(b, 0, pieceOne)) {
+                        continue;
+                    }
+                    for (int pieceTwo = 0; pieceTwo < PIECE_STATES; pieceTwo++) {
+                        if (pieceOne != 0 && pieceTwo != 0 && square(pieceOne) == square(pieceTwo)) {
+                            continue;
+                        }
+                        if (!place(b, 1, pieceTwo)) {
+                            continue;
+                        }
+
+                        int index = (int) (index(remaining, ambersOne, ambersTwo, pieceOne, pieceTwo) % POSITIONS);
+                        table[index] = (short) solve(b, team);
+
+                        if (pieceTwo != 0) {
+                            b.remove(square(pieceTwo));
+                        }
+                    }
+                    if (pieceOne != 0) {
+                        b.remove(square(pieceOne));
+                    }
+                }
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * @return Der Eintrag für die Stellung
+     */
+    private int solve(BitBoard b, int team) {
+        int count = MoveGenerator.generate(b, team, moves);
+        if (count == 0) {
+            return entry(LOSS, 0);
+        }
+
+        int best = 0;
+        int bestMove = 0;
+        for (int i = 0; i < count; i++) {
+            int m = moves[i] & MoveGenerator.SQUARES;
+            int from = m >>> 6;
+            int to = m & 63;
+
+            int undo = b.make(from, to);
+            int value = -value(b);
+            b.unmake(from, to, undo);
+
+            if (bestMove == 0 || value > best) {
+                best = value;
+                bestMove = m;
+                if (best == 1) {
+                    break;
+                }
+            }
+        }
+
+        return entry(best + DRAW, bestMove);
+    }
+
+    /**
+     * @return 1, 0 oder -1 für das Team, das in der Stellung am Zug ist
+     */
+    private int value(BitBoard b) {
+        int turn = b.getTurn();
+        int team = turn & 1;
+
+        if (turn >= LAST_TURN || (turn % 2 == 0 && Math.max(b.getAmbers(0), b.getAmbers(1)) >= 2)) {
+            return Integer.signum(b.getAmbers(team) - b.getAmbers(1 - team));
+        }
+
+        int pieceOne = pieceState(b, 0);
+        int pieceTwo = pieceState(b, 1);
+        long index = index(LAST_TURN - turn, b.getAmbers(0), b.getAmbers(1), pieceOne, pieceTwo) % POSITIONS;
+        return result(previous[(int) index]) - DRAW;
+    }
+
+    /**
+     * Stellungen, in denen das Spiel schon vorbei wäre oder das Team am Zug schon zwei Bernsteine hat, kommen nicht
+     * vor
+     */
+    private static boolean reachable(int turn, int ambersOne, int ambersTwo) {
+        int own = (turn & 1) == 0 ? ambersOne : ambersTwo;
+        return own < 2 && !(turn % 2 == 0 && Math.max(ambersOne, ambersTwo) >= 2);
+    }
+
+    /**
+     * Setzt die Figur eines Teams. Leichte Figuren auf ihrer Ziellinie wären schon Bernstein geworden.
+     *
+     * @return Ob die Stellung möglich ist
+     */
+    private static boolean place(BitBoard b, int team, int state) {
+        if (state == 0) {
+            return true;
+        }
+
+        int sq = square(state);
+        int type = (state - 1) / 128;
+        int height = ((state - 1) / 64) % 2 + 1;
+        if (type != ROBBE && BitBoard.x(sq) == BitBoard.zielLinie(team)) {
+            return false;
+        }
+
+        b.place(sq, type, team, height);
+        return true;
+    }
+
+    private static int square(int state) {
+        return (state - 1) & 63;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Aufruf: TablebaseGenerator datei [restliche züge]");
+            System.exit(2);
+        }
+
+        int maxRemaining = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        new TablebaseGenerator().generate(Paths.get(args[0]), maxRemaining);
+    }
+}
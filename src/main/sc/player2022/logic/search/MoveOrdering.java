@@ -0,0 +1,174 @@
+package sc.player2022.logic.search;
+
+import sc.player2022.logic.Bewertung;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.player2022.logic.bitboard.MoveGenerator;
+import sc.plugin2022.PieceType;
+
+/**
+ * Zugsortierung für die {@link Search}, damit Alpha-Beta möglichst früh abschneidet. Reihenfolge:
+ * <ol>
+ *     <li>der beste Zug aus der Transpositionstabelle bzw. der letzten Iteration</li>
+ *     <li>Züge, die einen Bernstein bringen</li>
+ *     <li>schlagende Züge nach MVV-LVA: wertvollstes Opfer zuerst (Turmhöhe, dann {@link Bewertung#pieceValue}),
+ *     bei gleichem Opfer der billigste Angreifer</li>
+ *     <li>zwei Killer-Züge pro Ebene: ruhige Züge, die in einer Nachbarstellung abgeschnitten haben</li>
+ *     <li>alle übrigen Züge nach ihrem History-Wert pro Start- und Zielfeld</li>
+ * </ol>
+ * Alle Daten liegen in Arrays primitiver Typen; eine Instanz gehört zu genau einer Suche und wird nicht geteilt.
+ */
+public final class MoveOrdering {
+    private static final int FIRST = 1 << 30;
+    private static final int AMBER = 1 << 28;
+    private static final int CAPTURE = 1 << 26;
+    private static final int KILLER = 1 << 25;
+
+    /** Darüber werden alle History-Werte halbiert, damit sie unter den Killern bleiben */
+    private static final int HISTORY_LIMIT = 1 << 24;
+
+    private static final int ROBBE = PieceType.Robbe.ordinal();
+
+    /** Zwei Killer-Züge pro Ebene als from << 6 | to */
+    private final int[][] killers = new int[Search.MAX_DEPTH + 1][2];
+
+    /** History-Werte nach from << 6 | to */
+    private final int[] history = new int[MoveGenerator.SQUARES + 1];
+
+    /** Sortierschlüssel pro Ebene, parallel zu den Zuglisten der Suche */
+    private final int[][] scores = new int[Search.MAX_DEPTH + 1][MoveGenerator.MAX_MOVES];
+
+    /**
+     * Vor einer neuen Suche: Killer gelten nur für die Stellungen einer Suche, History-Werte werden nur abgeschwächt
+     */
+    public void newSearch() {
+        for (int[] k : killers) {
+            k[0] = 0;
+            k[1] = 0;
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 2;
+        }
+    }
+
+    /**
+     * Sortiert die Züge einer Ebene absteigend nach ihrem Schlüssel.
+     *
+     * @param b Die Stellung, zu der die Züge gehören
+     * @param list Züge, wie sie der {@link MoveGenerator} erzeugt
+     * @param count Anzahl der Züge
+     * @param ply Ebene in der Suche
+     * @param first Zug, der zuerst durchsucht werden soll, als from << 6 | to, oder 0
+     */
+    public void sort(BitBoard b, int[] list, int count, int ply, int first) {
+        int[] score = scores[ply];
+        for (int i = 0; i < count; i++) {
+            score[i] = score(b, list[i], ply, first);
+        }
+
+        // Einfügesortieren, bei höchstens 64 Zügen schneller als alles andere und ohne Objekte
+        for (int i = 1; i < count; i++) {
+            int m = list[i];
+            int s = score[i];
+            int j = i - 1;
+            while (j >= 0 && score[j] < s) {
+                list[j + 1] = list[j];
+                score[j + 1] = score[j];
+                j--;
+            }
+            list[j + 1] = m;
+            score[j + 1] = s;
+        }
+    }
+
+    private int score(BitBoard b, int move, int ply, int first) {
+        int m = move & MoveGenerator.SQUARES;
+        if (m == first) {
+            return FIRST;
+        }
+
+        int from = MoveGenerator.from(move);
+        int to = MoveGenerator.to(move);
+        int type = MoveGenerator.type(move);
+        int team = b.team(from);
+        int attacker = Bewertung.pieceValueLookup(type, team, from);
+
+        boolean amber = type != ROBBE && BitBoard.x(to) == BitBoard.zielLinie(team);
+
+        if (MoveGenerator.isCapture(move)) {
+            int victimHeight = b.height(to);
+            int victim = victimHeight * 16 + Bewertung.pieceValueLookup(b.type(to), 1 - team, to);
+            int mvvLva = victim * 16 - attacker;
+            return amber || b.height(from) + victimHeight >= 3 ? AMBER + mvvLva : CAPTURE + mvvLva;
+        }
+
+        if (amber) {
+            return AMBER - attacker;
+        }
+
+        int[] k = killers[ply];
+        if (m == k[0]) {
+            return KILLER + 1;
+        }
+        if (m == k[1]) {
+            return KILLER;
+        }
+
+        return history[m];
+    }
+
+    /**
+     * Grobe Schätzung, wie viel ein taktischer Zug nach {@link Bewertung#bewerte} höchstens bringt: ein Bernstein oder
+     * der Wert des Opfers und ein Turm.
+     *
+     * @param b Die Stellung vor dem Zug
+     * @param move Zug, wie ihn der {@link MoveGenerator} erzeugt
+     * @return Den geschätzten Gewinn oder 0 für ruhige Züge
+     */
+    static int gain(BitBoard b, int move) {
+        int from = MoveGenerator.from(move);
+        int to = MoveGenerator.to(move);
+        int type = MoveGenerator.type(move);
+        int team = b.team(from);
+        boolean amber = type != ROBBE && BitBoard.x(to) == BitBoard.zielLinie(team);
+
+        if (!MoveGenerator.isCapture(move)) {
+            return amber ? Bewertung.AMBER_WERT : 0;
+        }
+
+        int victimHeight = b.height(to);
+        int victim = Bewertung.pieceValueLookup(b.type(to), 1 - team, to)
+                + (victimHeight > 1 ? Bewertung.TURM_WERT : 0);
+        if (amber || b.height(from) + victimHeight >= 3) {
+            return victim + Bewertung.AMBER_WERT;
+        }
+        return victim + Bewertung.TURM_WERT;
+    }
+
+    /**
+     * Merkt sich einen Zug, der abgeschnitten hat. Schlagende Züge werden schon über MVV-LVA vorgezogen und zählen
+     * daher nicht.
+     *
+     * @param move Zug, wie ihn der {@link MoveGenerator} erzeugt
+     * @param ply Ebene in der Suche
+     * @param depth Restliche Tiefe; je tiefer, desto mehr zählt der Abschnitt
+     */
+    public void cutoff(int move, int ply, int depth) {
+        if (MoveGenerator.isCapture(move)) {
+            return;
+        }
+
+        int m = move & MoveGenerator.SQUARES;
+        int[] k = killers[ply];
+        if (k[0] != m) {
+            k[1] = k[0];
+            k[0] = m;
+        }
+
+        history[m] += depth * depth;
+        if (history[m] >= HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package sc.player2022.logic.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sc.player2022.logic.TimeBudget;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.plugin2022.GameState;
+import sc.plugin2022.Move;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parallele Suche nach dem Lazy-SMP-Verfahren: Mehrere {@link Search}-Instanzen durchsuchen gleichzeitig die gleiche
+ * Stellung und teilen sich eine {@link TranspositionTable}. Sie unterscheiden sich nur in Starttiefe und Zugreihenfolge
+ * an der Wurzel, den Rest der Aufteilung erledigt die gemeinsame Tabelle.
+ * <p>
+ * Die Hauptsuche läuft im aufrufenden Thread, die Hilfssuchen in einem festen Pool von Daemon-Threads. Gewählt wird der
+ * Zug der Suche, die am tiefsten fertig geworden ist, bei Gleichstand der der Hauptsuche.
+ * <p>
+ * Während der Gegner nachdenkt, kann mit {@link #startPondering(GameState, Move)} die Stellung nach dem eigenen Zug
+ * weiter durchsucht werden. Die Ergebnisse landen in der Transpositionstabelle; sobald der Gegner gezogen hat, wird
+ * die Suche abgebrochen und die nächste Suche findet den Teilbaum des tatsächlichen Zuges schon in der Tabelle.
+ * <p>
+ * Gepondert wird nicht eine eigene Liste vermuteter Antworten, sondern die ganze Stellung nach dem eigenen Zug mit dem
+ * Gegner am Zug. Ihre Wurzelzüge sind genau die möglichen Antworten, und die Zugsortierung durchsucht die vermutlich
+ * beste zuerst und am tiefsten; eine eigene Vorhersage würde nur dieselbe Suche ein zweites Mal machen. Länger als die
+ * Bedenkzeit des Gegners ({@link TimeBudget#SERVER_LIMIT}) wird nicht gepondert, und auch ohne neuen Spielstand hört
+ * das Pondern bei {@link #stopPondering()} und {@link #shutdown()} auf, etwa am Spielende oder nach einem Fehler.
+ */
+public class ParallelSearch {
+    private static final Logger log = LoggerFactory.getLogger(ParallelSearch.class);
+
+    private final TranspositionTable table;
+    private final Search[] workers;
+    private final ExecutorService pool;
+
+    /** Thread für die Hauptsuche beim Pondern, da der aufrufende Thread nicht blockiert werden darf */
+    private final ExecutorService ponderPool;
+
+    private final List<Future<?>> ponderTasks = new ArrayList<>();
+
+    /** Zug der Stellung, die gerade gepondert wird */
+    private int ponderTurn = -1;
+
+    /**
+     * @param table Die gemeinsame Transpositionstabelle
+     * @param threads Anzahl der Threads, mindestens 1
+     */
+    public ParallelSearch(TranspositionTable table, int threads) {
+        this.table = table;
+        workers = new Search[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Search(table, i);
+        }
+
+        if (workers.length > 1) {
+            pool = Executors.newFixedThreadPool(workers.length - 1, r -> daemon(r, "Suche"));
+        } else {
+            pool = null;
+        }
+        ponderPool = Executors.newSingleThreadExecutor(r -> daemon(r, "Pondern"));
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+
+    /**
+     * Sucht mit allen Threads den besten Zug für das Team, das im Spielstand am Zug ist.
+     *
+     * @param gameState Der aktuelle Spielstand
+     * @param timeMillis Zeit, die die Suche höchstens brauchen darf
+     * @return Den besten gefundenen Zug oder null, wenn keine Suche Tiefe 1 geschafft hat
+     */
+    public Move bestMove(GameState gameState, long timeMillis) {
+        long deadline = System.nanoTime() + timeMillis * 1_000_000;
+        return bestMove(gameState, deadline, deadline);
+    }
+
+    /**
+     * Sucht mit allen Threads den besten Zug für das Team, das im Spielstand am Zug ist.
+     *
+     * @param gameState Der aktuelle Spielstand
+     * @param softDeadline Zeitpunkt nach {@link System#nanoTime()}, ab dem keine neue Tiefe mehr begonnen wird
+     * @param deadline Zeitpunkt nach {@link System#nanoTime()}, zu dem die Suche abbricht
+     * @return Den besten gefundenen Zug oder null, wenn keine Suche Tiefe 1 geschafft hat
+     */
+    public Move bestMove(GameState gameState, long softDeadline, long deadline) {
+        stopPondering();
+        BitBoard board = BitBoard.of(gameState);
+        table.newSearch();
+
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int i = 1; i < workers.length; i++) {
+            Search worker = workers[i];
+            BitBoard copy = board.copy();
+            worker.resume();
+            helpers.add(pool.submit(() -> worker.search(copy, softDeadline, deadline)));
+        }
+
+        Search main = workers[0];
+        main.resume();
+        main.search(board, softDeadline, deadline);
+
+        // Hat die Hauptsuche vorzeitig aufgehört (etwa bei einem sicheren Sieg), brauchen die anderen nicht weiterzumachen
+        for (int i = 1; i < workers.length; i++) {
+            workers[i].stop();
+        }
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.error("Fehler in einer Hilfssuche:", e.getCause());
+            }
+        }
+
+        Search best = main;
+        for (Search worker : workers) {
+            if (worker.getCompletedMove() != 0 && worker.getCompletedDepth() > best.getCompletedDepth()) {
+                best = worker;
+            }
+        }
+
+        logStatistics(best);
+        return Search.toMove(best.getCompletedMove());
+    }
+
+    /**
+     * Durchsucht im Hintergrund die Stellung nach dem eigenen Zug, bis {@link #stopPondering()} aufgerufen wird oder
+     * die Bedenkzeit des Gegners abgelaufen ist
+     *
+     * @param gameState Der Spielstand vor dem eigenen Zug
+     * @param move Der eigene Zug, der gerade gesendet wird
+     */
+    public synchronized void startPondering(GameState gameState, Move move) {
+        stopPondering();
+        if (ponderPool.isShutdown()) {
+            // Nach shutdown, etwa wenn das Spiel während der Suche abgebrochen wurde
+            return;
+        }
+
+        BitBoard board = BitBoard.of(gameState);
+        board.make(BitBoard.square(move.getFrom()), BitBoard.square(move.getTo()));
+        if (board.getTurn() >= 60) {
+            return;
+        }
+
+        // Spätestens dann hat der Gegner gezogen oder seine Zeit überschritten
+        long deadline = System.nanoTime() + TimeBudget.SERVER_LIMIT * 1_000_000;
+        ponderTurn = board.getTurn();
+
+        for (int i = 0; i < workers.length; i++) {
+            Search worker = workers[i];
+            BitBoard copy = i == 0 ? board : board.copy();
+            worker.resume();
+            ponderTasks.add((i == 0 ? ponderPool : pool).submit(() -> worker.search(copy, deadline, deadline)));
+        }
+    }
+
+    /**
+     * Bricht das Pondern ab, wenn der Spielstand neuer ist als die geponderte Stellung, der Gegner also gezogen hat
+     *
+     * @param gameState Der neue Spielstand
+     */
+    public synchronized void onUpdate(GameState gameState) {
+        if (isPondering() && gameState.getTurn() > ponderTurn) {
+            stopPondering();
+        }
+    }
+
+    public synchronized boolean isPondering() {
+        return !ponderTasks.isEmpty();
+    }
+
+    /**
+     * Bricht das Pondern ab und wartet, bis alle Threads fertig sind. Die Ergebnisse bleiben in der Tabelle. Kann aus
+     * jedem Thread aufgerufen werden, etwa auch bei einem Fehler vom Server.
+     */
+    public synchronized void stopPondering() {
+        if (ponderTasks.isEmpty()) {
+            return;
+        }
+
+        for (Search worker : workers) {
+            worker.stop();
+        }
+        for (Future<?> task : ponderTasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                log.error("Fehler beim Pondern:", e.getCause());
+            }
+        }
+        ponderTasks.clear();
+        ponderTurn = -1;
+
+        long nodes = 0;
+        for (Search worker : workers) {
+            nodes += worker.getNodes();
+        }
+        log.info("Pondern: Tiefe {}, vermuteter Zug {}, {} Knoten in {}ms", workers[0].getCompletedDepth(),
+                Search.toMove(workers[0].getCompletedMove()), nodes, workers[0].getTime() / 1_000_000);
+    }
+
+    private void logStatistics(Search best) {
+        long nodes = 0;
+        for (Search worker : workers) {
+            nodes += worker.getNodes();
+            log.info("Thread {}: Tiefe {}, {} Knoten, {} Knoten/s", worker.getId(), worker.getCompletedDepth(),
+                    worker.getNodes(), worker.getNodesPerSecond());
+        }
+
+        long time = workers[0].getTime();
+        log.info("Suche: Tiefe {} (Thread {}), Bewertung {}, {} Knoten in {}ms, {} Knoten/s mit {} Threads",
+                best.getCompletedDepth(), best.getId(), best.getCompletedScore(), nodes, time / 1_000_000,
+                time > 0 ? nodes * 1_000_000_000L / time : 0, workers.length);
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * Beendet die Hilfsthreads
+     */
+    public void shutdown() {
+        stopPondering();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+        ponderPool.shutdownNow();
+    }
+}
@@ -0,0 +1,420 @@
+package sc.player2022.logic.search;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sc.player2022.logic.Bewertung;
+import sc.player2022.logic.IncrementalEvaluation;
+import sc.player2022.logic.bitboard.AttackMap;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.player2022.logic.bitboard.MoveGenerator;
+import sc.plugin2022.GameState;
+import sc.plugin2022.Move;
+
+/**
+ * Negamax-Suche mit Alpha-Beta-Pruning und iterativer Vertiefung auf einem {@link BitBoard}. Es wird so lange immer
+ * eine Ebene tiefer gesucht, bis die Zeit abgelaufen ist; zurückgegeben wird der beste Zug der letzten vollständig
+ * durchsuchten Tiefe. An den Blättern folgt eine Ruhesuche über Schläge und Bernstein-Züge, erst danach wird nach
+ * {@link Bewertung#bewerte(AttackMap, int)} bewertet, wobei die {@link IncrementalEvaluation} die Werte bei jedem Zug
+ * mitführt. Bereits durchsuchte Stellungen werden in einer {@link TranspositionTable} gespeichert, die auch zwischen
+ * den Zügen erhalten bleibt.
+ * <p>
+ * Mehrere Instanzen können sich eine Tabelle teilen und gleichzeitig suchen, siehe {@link ParallelSearch}. Jede
+ * Instanz hat eine eigene Nummer; alle außer Nummer 0 beginnen bei ungerader Nummer eine Ebene tiefer und durchsuchen
+ * die Züge an der Wurzel in anderer Reihenfolge, damit sie nicht die gleiche Arbeit machen.
+ */
+public class Search {
+    private static final Logger log = LoggerFactory.getLogger(Search.class);
+
+    /** Bewertung eines gewonnenen Spiels, wird um die Anzahl der Halbzüge bis zum Sieg verringert */
+    public static final int WIN = 1_000_000;
+
+    /** Maximale Suchtiefe; das Spiel hat ohnehin nur 60 Züge */
+    public static final int MAX_DEPTH = 60;
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    /** Letzter Zug, nach dem das Spiel endet */
+    private static final int LAST_TURN = 60;
+
+    /** Sicherheitsabstand beim Delta-Pruning der Ruhesuche, deckt Änderungen bei gedeckten und bedrohten Figuren ab */
+    private static final int DELTA_MARGIN = 8;
+
+    /** Nach so vielen Knoten wird die Zeit geprüft */
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    /** Zugspeicher pro Ebene, Züge wie vom {@link MoveGenerator} erzeugt */
+    private final int[][] moves = new int[MAX_DEPTH + 1][MoveGenerator.MAX_MOVES];
+
+    private final TranspositionTable table;
+
+    private final MoveOrdering ordering = new MoveOrdering();
+
+    /** Nummer dieser Instanz bei paralleler Suche, 0 für die Hauptsuche */
+    private final int id;
+
+    private BitBoard board;
+    private IncrementalEvaluation eval;
+
+    private long softDeadline;
+    private long deadline;
+    private volatile boolean stopped;
+    private boolean aborted;
+    private long nodes;
+    private long time;
+
+    private int rootBest;
+
+    // Ergebnis der letzten vollständig durchsuchten Tiefe
+    private int completedMove;
+    private int completedScore;
+    private int completedDepth;
+
+    public Search(TranspositionTable table, int id) {
+        this.table = table;
+        this.id = id;
+    }
+
+    public Search(TranspositionTable table) {
+        this(table, 0);
+    }
+
+    public Search() {
+        this(new TranspositionTable());
+    }
+
+    /**
+     * Sucht den besten Zug für das Team, das im Spielstand am Zug ist.
+     *
+     * @param gameState Der aktuelle Spielstand
+     * @param timeMillis Zeit, die die Suche höchstens brauchen darf
+     * @return Den besten gefundenen Zug oder null, wenn nicht einmal Tiefe 1 fertig wurde
+     */
+    public Move bestMove(GameState gameState, long timeMillis) {
+        table.newSearch();
+        stopped = false;
+        long deadline = System.nanoTime() + timeMillis * 1_000_000;
+        search(BitBoard.of(gameState), deadline, deadline);
+
+        log.info("Suche: Tiefe {}, Bewertung {}, {} Knoten in {}ms", completedDepth, completedScore, nodes, time / 1_000_000);
+        return toMove(completedMove);
+    }
+
+    /**
+     * Sucht mit iterativer Vertiefung, bis die Zeit abgelaufen ist oder {@link #stop()} aufgerufen wurde. Das Ergebnis
+     * steht danach in {@link #getCompletedMove()}, {@link #getCompletedScore()} und {@link #getCompletedDepth()}.
+     *
+     * @param board Die zu durchsuchende Stellung, wird während der Suche verändert und danach wiederhergestellt
+     * @param softDeadline Zeitpunkt nach {@link System#nanoTime()}, ab dem keine neue Tiefe mehr begonnen wird
+     * @param deadline Zeitpunkt nach {@link System#nanoTime()}, zu dem die Suche abbricht
+     */
+    public void search(BitBoard board, long softDeadline, long deadline) {
+        long start = System.nanoTime();
+        this.softDeadline = softDeadline;
+        this.deadline = deadline;
+        this.board = board;
+        eval = new IncrementalEvaluation(board);
+        aborted = false;
+        nodes = 0;
+        completedMove = 0;
+        completedScore = 0;
+        completedDepth = 0;
+        ordering.newSearch();
+
+        int maxDepth = Math.min(MAX_DEPTH, LAST_TURN - board.getTurn());
+
+        for (int d = 1 + (id & 1); d <= maxDepth; d++) {
+            rootBest = completedMove;
+            int score = negamax(d, 0, -INFINITY, INFINITY);
+            if (aborted) {
+                break;
+            }
+
+            completedMove = rootBest;
+            completedScore = score;
+            completedDepth = d;
+
+            // Ein sicherer Sieg oder eine sichere Niederlage ändert sich durch tieferes Suchen nicht mehr
+            if (Math.abs(score) >= WIN - MAX_DEPTH || System.nanoTime() > softDeadline) {
+                break;
+            }
+        }
+
+        time = System.nanoTime() - start;
+    }
+
+    /**
+     * Bricht eine laufende Suche (auch aus einem anderen Thread) beim nächsten Prüfen der Zeit ab. Gilt auch für eine
+     * Suche, die erst danach gestartet wird, bis {@link #resume()} aufgerufen wird.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    public void resume() {
+        stopped = false;
+    }
+
+    /**
+     * @param move Ein Zug als from << 6 | to
+     * @return Den Zug für das Plugin oder null, wenn kein Zug angegeben ist
+     */
+    public static Move toMove(int move) {
+        return MoveGenerator.toMove(move);
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        if (++nodes % TIME_CHECK_INTERVAL == 0 && (stopped || System.nanoTime() > deadline)) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        int team = board.getCurrentTeam();
+
+        if (isOver()) {
+            return terminal(team, ply);
+        }
+        if (depth == 0) {
+            return quiesce(ply, alpha, beta);
+        }
+
+        // Wurde die Stellung schon mindestens so tief durchsucht?
+        long hash = board.getHash();
+        long entry = table.probe(hash);
+        int hashMove = 0;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int flag = TranspositionTable.flag(entry);
+                if (flag == TranspositionTable.EXACT
+                        || (flag == TranspositionTable.LOWER && score >= beta)
+                        || (flag == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] list = moves[ply];
+        int count = generate(list, team, ply, ply == 0 && rootBest != 0 ? rootBest : hashMove);
+        if (count == 0) {
+            // Wer nicht mehr ziehen kann, hat verloren
+            return -WIN + ply;
+        }
+        if (ply == 0 && id > 0 && count > 2) {
+            rotate(list, 1, count, id);
+        }
+
+        int alphaStart = alpha;
+        int bestMove = 0;
+        int best = -INFINITY;
+        for (int i = 0; i < count; i++) {
+            int m = list[i] & MoveGenerator.SQUARES;
+            int from = m >>> 6;
+            int to = m & 63;
+
+            int undo = eval.make(from, to);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            eval.unmake(from, to, undo);
+
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = m;
+                if (ply == 0) {
+                    rootBest = m;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        ordering.cutoff(list[i], ply, depth);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int flag = best >= beta ? TranspositionTable.LOWER
+                : best > alphaStart ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(hash, bestMove, depth, flag, toTable(best, ply));
+
+        return best;
+    }
+
+    /**
+     * Ruhesuche: nach der eigentlichen Tiefe werden nur noch schlagende Züge und Züge, die einen Bernstein bringen,
+     * weiterverfolgt, damit nicht mitten in einem Schlagabtausch bewertet wird. Das Team am Zug kann auch einfach
+     * stehen bleiben (Stand-Pat), dann gilt die statische Bewertung. Schläge, die selbst mit dem Wert des Opfers nicht
+     * an alpha heranreichen, werden übersprungen (Delta-Pruning).
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        if (++nodes % TIME_CHECK_INTERVAL == 0 && (stopped || System.nanoTime() > deadline)) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        int team = board.getCurrentTeam();
+        if (isOver()) {
+            return terminal(team, ply);
+        }
+
+        int standPat = eval.bewerte(team);
+        if (standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        int[] list = moves[ply];
+        int count = MoveGenerator.generate(board, team, list);
+        int tactical = 0;
+        for (int i = 0; i < count; i++) {
+            int gain = MoveOrdering.gain(board, list[i]);
+            if (gain > 0 && standPat + gain + DELTA_MARGIN > alpha) {
+                list[tactical++] = list[i];
+            }
+        }
+        ordering.sort(board, list, tactical, ply, 0);
+
+        int best = standPat;
+        for (int i = 0; i < tactical; i++) {
+            int m = list[i] & MoveGenerator.SQUARES;
+            int from = m >>> 6;
+            int to = m & 63;
+
+            int undo = eval.make(from, to);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            eval.unmake(from, to, undo);
+
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Siege werden in der Tabelle relativ zur gespeicherten Stellung abgelegt, nicht relativ zur Wurzel
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= WIN - MAX_DEPTH) return score + ply;
+        if (score <= -WIN + MAX_DEPTH) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN - MAX_DEPTH) return score - ply;
+        if (score <= -WIN + MAX_DEPTH) return score + ply;
+        return score;
+    }
+
+    /**
+     * Das Spiel endet nach dem letzten Zug oder wenn am Ende einer Runde ein Team zwei Bernsteine hat
+     */
+    private boolean isOver() {
+        int turn = board.getTurn();
+        return turn >= LAST_TURN || (turn % 2 == 0 && Math.max(board.getAmbers(0), board.getAmbers(1)) >= 2);
+    }
+
+    private int terminal(int team, int ply) {
+        int diff = board.getAmbers(team) - board.getAmbers(1 - team);
+        if (diff > 0) return WIN - ply;
+        if (diff < 0) return -WIN + ply;
+        // Gleichstand: Die statische Bewertung entscheidet über die übrigen Figuren
+        return eval.bewerte(team);
+    }
+
+    /**
+     * Schreibt alle Züge des Teams in die Liste, sortiert nach {@link MoveOrdering}. Ein bekannter bester Zug kommt
+     * ganz nach vorne.
+     *
+     * @param first Zug, der zuerst durchsucht werden soll, oder 0
+     * @return Anzahl der Züge
+     */
+    private int generate(int[] list, int team, int ply, int first) {
+        int count = MoveGenerator.generate(board, team, list);
+        ordering.sort(board, list, count, ply, first);
+        return count;
+    }
+
+    /**
+     * Verschiebt die Züge von start bis end um steps Stellen nach vorne, ohne Kopie durch dreimaliges Umdrehen
+     */
+    private static void rotate(int[] list, int start, int end, int steps) {
+        steps %= end - start;
+        if (steps == 0) {
+            return;
+        }
+
+        reverse(list, start, start + steps);
+        reverse(list, start + steps, end);
+        reverse(list, start, end);
+    }
+
+    /**
+     * Dreht die Reihenfolge der Züge von start bis end um
+     */
+    private static void reverse(int[] list, int start, int end) {
+        for (int i = start, j = end - 1; i < j; i++, j--) {
+            int tmp = list[i];
+            list[i] = list[j];
+            list[j] = tmp;
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return Dauer der letzten Suche in Nanosekunden
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return Knoten pro Sekunde der letzten Suche
+     */
+    public long getNodesPerSecond() {
+        return time > 0 ? nodes * 1_000_000_000L / time : 0;
+    }
+
+    public int getCompletedMove() {
+        return completedMove;
+    }
+
+    public int getCompletedScore() {
+        return completedScore;
+    }
+
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+}
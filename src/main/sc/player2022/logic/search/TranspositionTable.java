@@ -0,0 +1,119 @@
+package sc.player2022.logic.search;
+
+import java.util.Arrays;
+
+/**
+ * Transpositionstabelle fester Größe für die {@link Search}. Speichert pro Stellung (Zobrist-Hash) Tiefe, Bewertung,
+ * Art der Schranke und besten Zug, damit Stellungen, die über verschiedene Zugfolgen erreicht werden, nicht erneut
+ * durchsucht werden.
+ * <p>
+ * Die Tabelle ist ein einziges, beim Erzeugen angelegtes long-Array, jeder Eintrag belegt zwei longs: den Hash XOR die
+ * Daten und die Daten selbst. Ein Eintrag, der von einem anderen Thread nur halb geschrieben wurde, passt dann nicht
+ * mehr zum Hash und wird als Fehlschlag behandelt. So können mehrere Threads die Tabelle ohne Sperren teilen.
+ * <p>
+ * Aufbau der Daten: Bits 0-11 Zug (from << 6 | to, 0 = kein Zug), 12-18 Tiefe, 19-20 Schranke, 21-28 Alter,
+ * 32-63 Bewertung.
+ */
+public final class TranspositionTable {
+    /** Größe in MB, wenn nichts anderes angegeben wird */
+    public static final int DEFAULT_MB = 64;
+
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    private static final int BYTES_PER_ENTRY = 16;
+
+    private final long[] table;
+    private final int mask;
+
+    private volatile int age;
+
+    /**
+     * @param megabytes Höchstens so viel Speicher wird belegt, die Anzahl der Einträge wird auf eine Zweierpotenz
+     *                  abgerundet
+     */
+    public TranspositionTable(int megabytes) {
+        long entries = Long.highestOneBit(Math.max(1024, (long) megabytes * 1024 * 1024 / BYTES_PER_ENTRY));
+        entries = Math.min(entries, 1 << 29);
+        table = new long[(int) entries * 2];
+        mask = (int) entries - 1;
+    }
+
+    public TranspositionTable() {
+        this(DEFAULT_MB);
+    }
+
+    /**
+     * Muss vor jeder neuen Suche aufgerufen werden, damit Einträge älterer Suchen bevorzugt ersetzt werden
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+    }
+
+    /**
+     * @param hash Zobrist-Hash der Stellung
+     * @return Die gespeicherten Daten oder 0, wenn es keinen passenden Eintrag gibt
+     */
+    public long probe(long hash) {
+        int i = ((int) hash & mask) << 1;
+        long data = table[i + 1];
+        return (table[i] ^ data) == hash ? data : 0;
+    }
+
+    /**
+     * Speichert einen Eintrag. Ein vorhandener Eintrag einer anderen Stellung wird nur ersetzt, wenn er aus einer
+     * älteren Suche stammt oder nicht tiefer gesucht wurde.
+     */
+    public void store(long hash, int move, int depth, int flag, int score) {
+        int i = ((int) hash & mask) << 1;
+        long old = table[i + 1];
+
+        if (old != 0 && (table[i] ^ old) != hash && age(old) == age && depth(old) > depth) {
+            return;
+        }
+
+        long data = (move & 0xFFFL)
+                | ((long) (depth & 0x7F) << 12)
+                | ((long) flag << 19)
+                | ((long) age << 21)
+                | ((long) score << 32);
+        table[i] = hash ^ data;
+        table[i + 1] = data;
+    }
+
+    // -------------------
+    // Einträge auslesen
+    // -------------------
+
+    public static int move(long data) {
+        return (int) (data & 0xFFF);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 12) & 0x7F);
+    }
+
+    public static int flag(long data) {
+        return (int) ((data >>> 19) & 0x3);
+    }
+
+    public static int age(long data) {
+        return (int) ((data >>> 21) & 0xFF);
+    }
+
+    public static int score(long data) {
+        return (int) (data >> 32);
+    }
+
+    /**
+     * @return Anzahl der Einträge, die die Tabelle fassen kann
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,131 @@
+package sc.player2022.logic;
+
+import org.junit.jupiter.api.Test;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.plugin2022.Board;
+import sc.plugin2022.Coordinates;
+import sc.plugin2022.GameState;
+import sc.plugin2022.Move;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prüft die Abfragen aus {@link GameInfo}, die vom {@link AnalysisContext} abhängen: Die Ergebnisse mit
+ * {@link AnalysisCache} müssen denen ohne entsprechen, auch wenn sich Kontexte für verschiedene Teams und Bernsteine
+ * einen Speicher teilen.
+ */
+class AnalysisContextTest {
+    /**
+     * Team ONE (ein Bernstein) macht einen Punkt mit dem Seestern auf der Grundlinie oder mit dem Turm, der die Möwe
+     * schlägt. Team TWO (kein Bernstein) mit der Herzmuschel auf der Grundlinie oder mit der Robbe, die den Turm
+     * schlägt.
+     */
+    private static final String[] POINTS = {
+            ".. h1 .. .. .. .. .. ..",
+            ".. .. .. .. .. .. .. ..",
+            ".. .. .. .. .. .. .. R1",
+            ".. .. .. .. .. .. S1 ..",
+            ".. .. .. .. r1 .. .. ..",
+            ".. .. H2 .. .. .. .. ..",
+            ".. .. .. m1 .. .. .. ..",
+            "R1 .. .. .. .. .. .. ..",
+    };
+
+    private static final Set<Move> POINTS_ONE = moves(
+            new Move(new Coordinates(6, 3), new Coordinates(7, 3)),
+            new Move(new Coordinates(6, 3), new Coordinates(7, 4)),
+            new Move(new Coordinates(2, 5), new Coordinates(3, 6)));
+
+    private static final Set<Move> POINTS_TWO = moves(
+            new Move(new Coordinates(1, 0), new Coordinates(0, 1)),
+            new Move(new Coordinates(4, 4), new Coordinates(2, 5)));
+
+    @Test
+    void pointMoves() {
+        GameState state = TestBoards.state(10, 1, 0, POINTS);
+        AnalysisContext ctx = AnalysisContext.of(state);
+        Board board = state.getBoard();
+
+        assertEquals(POINTS_ONE, new HashSet<>(GameInfo.getPointMoves(ctx, board, true)));
+        assertEquals(POINTS_TWO, new HashSet<>(GameInfo.getPointMoves(ctx, board, false)));
+    }
+
+    @Test
+    void winningMovesDependOnTeamAndAmbers() {
+        GameState state = TestBoards.state(10, 1, 0, POINTS);
+        AnalysisContext ctx = AnalysisContext.of(state);
+        AnalysisContext other = ctx.withTurn(11);
+        Board board = state.getBoard();
+
+        // Gleiches Brett, gleiche Abfrage, gleiches "own": nur der Kontext unterscheidet die Einträge im Speicher
+        assertEquals(POINTS_ONE, new HashSet<>(GameInfo.getWinningMoves(ctx, board, true)));
+        assertTrue(GameInfo.getWinningMoves(other, board, true).isEmpty());
+        assertTrue(GameInfo.getWinningMoves(ctx, board, false).isEmpty());
+        assertEquals(POINTS_ONE, new HashSet<>(GameInfo.getWinningMoves(other, board, false)));
+
+        // Mit zwei Bernsteinen gewinnt jeder Zug
+        GameState won = TestBoards.state(10, 2, 0, POINTS);
+        assertEquals(new HashSet<>(won.getPossibleMoves()),
+                new HashSet<>(GameInfo.getWinningMoves(AnalysisContext.of(won), won.getBoard(), true)));
+    }
+
+    @Test
+    void cachedMatchesUncached() {
+        for (String[] rows : Arrays.asList(POINTS, TestBoards.START_SYMMETRIC, TestBoards.START_MIXED)) {
+            for (int ambers = 0; ambers <= 2; ambers++) {
+                GameState state = TestBoards.state(10, ambers, 1, rows);
+                AnalysisCache cache = new AnalysisCache();
+                AnalysisContext ctx = AnalysisContext.of(state, cache);
+
+                // Zweimal, beim zweiten Mal kommt alles aus dem Speicher
+                assertCachedMatchesUncached(ctx, state.getBoard());
+                assertCachedMatchesUncached(ctx.withTurn(11), state.getBoard());
+                long misses = cache.getMisses();
+                assertCachedMatchesUncached(ctx, state.getBoard());
+                assertCachedMatchesUncached(ctx.withTurn(11), state.getBoard());
+                assertEquals(misses, cache.getMisses());
+            }
+        }
+    }
+
+    @Test
+    void cachedResultIsCopy() {
+        GameState state = TestBoards.state(10, 1, 0, POINTS);
+        AnalysisContext ctx = AnalysisContext.of(state);
+
+        GameInfo.getPointMoves(ctx, state.getBoard(), true).clear();
+        assertEquals(POINTS_ONE, new HashSet<>(GameInfo.getPointMoves(ctx, state.getBoard(), true)));
+    }
+
+    private static void assertCachedMatchesUncached(AnalysisContext ctx, Board board) {
+        BitBoard bits = BitBoard.of(board);
+
+        assertSameMoves("getOwnMoves", GameInfo.getOwnMoves(ctx, bits).toMoves(), GameInfo.getOwnMoves(ctx, board));
+        assertSameMoves("getOpponentMoves", GameInfo.getOpponentMoves(ctx, bits).toMoves(),
+                GameInfo.getOpponentMoves(ctx, board));
+        for (boolean own : new boolean[]{true, false}) {
+            assertSameMoves("getSafelyKillMoves", GameInfo.getSafelyKillMoves(ctx, bits, own).toMoves(),
+                    GameInfo.getSafelyKillMoves(ctx, board, own));
+            assertSameMoves("getPointMoves", GameInfo.getPointMoves(ctx, bits, own).toMoves(),
+                    GameInfo.getPointMoves(ctx, board, own));
+            assertSameMoves("getWinningMoves", GameInfo.getWinningMoves(ctx, bits, own).toMoves(),
+                    GameInfo.getWinningMoves(ctx, board, own));
+        }
+        assertEquals(BitBoard.of(board), bits, "Brett nach den Abfragen verändert");
+    }
+
+    private static void assertSameMoves(String query, List<Move> uncached, List<Move> cached) {
+        assertEquals(uncached.size(), cached.size(), query);
+        assertEquals(new HashSet<>(uncached), new HashSet<>(cached), query);
+    }
+
+    private static Set<Move> moves(Move... moves) {
+        return new HashSet<>(Arrays.asList(moves));
+    }
+}
@@ -0,0 +1,110 @@
+package sc.player2022.logic;
+
+import org.junit.jupiter.api.Test;
+import sc.player2022.logic.bitboard.AttackMap;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.player2022.logic.bitboard.MoveGenerator;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Vergleicht die {@link IncrementalEvaluation} nach jedem {@link IncrementalEvaluation#make} und
+ * {@link IncrementalEvaluation#unmake} mit {@link Bewertung#bewerte} auf einer neu aufgebauten {@link AttackMap} und
+ * {@link IncrementalEvaluation#canScore} mit dem Ausführen aller Züge.
+ */
+class IncrementalEvaluationTest {
+    /** Alle Zugfolgen bis zu dieser Länge werden geprüft */
+    private static final int DEPTH = 3;
+
+    @Test
+    void allLines() {
+        for (String[] rows : new String[][]{TestBoards.START_MIXED, TestBoards.MIDGAME}) {
+            BitBoard b = BitBoard.of(TestBoards.state(10, 1, 0, rows));
+            BitBoard original = b.copy();
+
+            allLines(new IncrementalEvaluation(b), DEPTH, "");
+            assertEquals(original, b, "Brett nach dem Zurücknehmen verändert");
+        }
+    }
+
+    /**
+     * Eine lange Zugfolge mit Schlägen und Bernsteinen bis zum Spielende, danach alles zurück
+     */
+    @Test
+    void longLine() {
+        BitBoard b = BitBoard.of(TestBoards.state(0, TestBoards.START_SYMMETRIC));
+        BitBoard original = b.copy();
+        IncrementalEvaluation eval = new IncrementalEvaluation(b);
+        Random random = new Random(1);
+
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int[] line = new int[60];
+        int[] undos = new int[60];
+        int ply = 0;
+        while (ply < line.length) {
+            int count = MoveGenerator.generate(b, b.getCurrentTeam(), moves);
+            if (count == 0) {
+                break;
+            }
+            line[ply] = moves[random.nextInt(count)];
+            undos[ply] = eval.make(MoveGenerator.from(line[ply]), MoveGenerator.to(line[ply]));
+            ply++;
+            assertMatchesFull(eval, "nach Zug " + ply);
+        }
+
+        while (ply > 0) {
+            ply--;
+            eval.unmake(MoveGenerator.from(line[ply]), MoveGenerator.to(line[ply]), undos[ply]);
+            assertMatchesFull(eval, "nach dem Zurücknehmen von Zug " + (ply + 1));
+        }
+        assertEquals(original, b, "Brett nach dem Zurücknehmen verändert");
+    }
+
+    private static void allLines(IncrementalEvaluation eval, int depth, String line) {
+        assertMatchesFull(eval, line);
+        if (depth == 0) {
+            return;
+        }
+
+        BitBoard b = eval.getBoard();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(b, b.getCurrentTeam(), moves);
+        for (int i = 0; i < count; i++) {
+            int from = MoveGenerator.from(moves[i]);
+            int to = MoveGenerator.to(moves[i]);
+            String next = line + " " + MoveGenerator.toMove(moves[i]);
+
+            int undo = eval.make(from, to);
+            allLines(eval, depth - 1, next);
+            eval.unmake(from, to, undo);
+            assertMatchesFull(eval, next + " zurückgenommen");
+        }
+    }
+
+    private static void assertMatchesFull(IncrementalEvaluation eval, String line) {
+        AttackMap reference = new AttackMap(eval.getBoard().copy());
+        for (int team = 0; team < 2; team++) {
+            int t = team;
+            assertEquals(Bewertung.bewerte(reference, t), eval.bewerte(t), () -> "bewerte(" + t + ") nach" + line);
+            assertEquals(canScore(eval.getBoard().copy(), t), eval.canScore(t), () -> "canScore(" + t + ") nach" + line);
+        }
+    }
+
+    /**
+     * @return Ob ein Zug des Teams einen Bernstein bringt, durch Ausführen aller Züge
+     */
+    private static boolean canScore(BitBoard b, int team) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(b, team, moves);
+        for (int i = 0; i < count; i++) {
+            int undo = b.make(MoveGenerator.from(moves[i]), MoveGenerator.to(moves[i]));
+            if (BitBoard.isAmber(undo)) {
+                return true;
+            }
+            b.unmake(MoveGenerator.from(moves[i]), MoveGenerator.to(moves[i]), undo);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,196 @@
+package sc.player2022.logic;
+
+import org.junit.jupiter.api.Test;
+import sc.player2022.logic.bitboard.BitBoard;
+import sc.player2022.logic.bitboard.MoveGenerator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Prüft {@link StaticExchange#evaluate} an Abtauschfolgen, deren Ergebnis von Hand berechnet ist, und an allen Zügen
+ * fester Stellungen gegen eine vollständige Suche über alle Rückschläge.
+ * <p>
+ * Die Werte von Hand: Herzmuschel 1, Möwe und Seestern 2, Robbe 3; leichte Figuren bekommen für Team ONE 7 - x, für
+ * Team TWO x dazu, Türme {@link Bewertung#TURM_WERT}, ein Bernstein {@link Bewertung#AMBER_WERT}.
+ */
+class StaticExchangeTest {
+    @Test
+    void quietMove() {
+        // Robbe zieht auf ein Feld, das niemand angreift: -3 + 3
+        assertEquals(0, see(new String[]{
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. R1 .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. r1",
+        }, 2, 2, 3, 4));
+    }
+
+    @Test
+    void undefendedCapture() {
+        // Robbe schlägt die Möwe (2 + 3): 5 - 3 + Turm aus Robbe (3 + 8)
+        assertEquals(13, see(new String[]{
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. R1 .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. m1 .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+        }, 2, 2, 3, 4));
+    }
+
+    @Test
+    void defendedCapture() {
+        // Wie ungedeckt, dann schlägt die Herzmuschel (1 + 4) den Turm (11) zum Bernstein zurück: 13 - (11 - 5 + 100)
+        assertEquals(-93, see(new String[]{
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. R1 .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. m1 .. .. .. ..",
+                ".. .. .. .. h1 .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+        }, 2, 2, 3, 4));
+    }
+
+    @Test
+    void cheapestRecaptureIsNotAlwaysBest() {
+        // Die Robbe (3) schlägt billiger zurück als die Herzmuschel (5), beide machen einen Bernstein:
+        // 13 - (11 - 3 + 100)
+        assertEquals(-95, see(new String[]{
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. R1 .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. m1 .. .. .. ..",
+                ".. .. .. .. h1 r1 .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+        }, 2, 2, 3, 4));
+    }
+
+    @Test
+    void recaptureThatDoesNotPay() {
+        // Schlägt die Herzmuschel die Robbe, wird der Turm (1 + 3 + 8) von der Möwe (2 + 4) zum Bernstein geschlagen:
+        // für Team TWO 3 - 5 + 12 - (12 - 6 + 100) < 0, also wird nicht geschlagen
+        assertEquals(0, see(new String[]{
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. R1 .. .. .. .. ..",
+                ".. .. .. M1 .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. h1 .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+        }, 2, 2, 3, 4));
+
+        // Ohne die Möwe lohnt sich der Schlag: 0 - (3 - 5 + 12)
+        assertEquals(-10, see(new String[]{
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. R1 .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. h1 .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+        }, 2, 2, 3, 4));
+    }
+
+    @Test
+    void amberEndsExchange() {
+        // Der Seestern (2 + 1) erreicht mit dem Schlag der Robbe (3) die Ziellinie, die Möwe kann nicht mehr schlagen
+        assertEquals(100, see(new String[]{
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. S1 r1",
+                ".. .. .. .. .. .. .. m1",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+        }, 6, 3, 7, 3));
+
+        // Der Herzmuschel-Turm (1 + 5 + 8) schlägt die Möwe (2 + 3) und wird zum Bernstein, die gegnerische Herzmuschel
+        // kann nicht mehr schlagen
+        assertEquals(91, see(new String[]{
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. .. .. .. .. .. ..",
+                ".. .. H2 .. .. .. .. ..",
+                ".. .. .. m1 .. .. .. ..",
+                ".. .. .. .. h1 .. .. ..",
+        }, 2, 5, 3, 6));
+    }
+
+    @Test
+    void matchesFullSearch() {
+        for (String[] rows : new String[][]{TestBoards.START_MIXED, TestBoards.MIDGAME}) {
+            BitBoard b = BitBoard.of(TestBoards.state(10, rows));
+            IncrementalEvaluation eval = new IncrementalEvaluation(b);
+
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            for (int team = 0; team < 2; team++) {
+                int count = MoveGenerator.generate(b, team, moves);
+                for (int i = 0; i < count; i++) {
+                    int move = moves[i];
+                    int from = MoveGenerator.from(move);
+                    int to = MoveGenerator.to(move);
+                    assertEquals(gain(eval, team, from, to), StaticExchange.evaluate(b, from, to),
+                            () -> "evaluate für " + MoveGenerator.toMove(move));
+                }
+            }
+        }
+    }
+
+    private static int see(String[] rows, int fromX, int fromY, int toX, int toY) {
+        BitBoard b = BitBoard.of(TestBoards.state(0, rows));
+        BitBoard original = b.copy();
+        int see = StaticExchange.evaluate(b, fromY * 8 + fromX, toY * 8 + toX);
+        assertEquals(original, b, "Brett verändert");
+        return see;
+    }
+
+    /**
+     * Vollständige Suche: der Zug wird ausgeführt, danach schlagen beide Teams abwechselnd zurück, solange es sich
+     * lohnt. Gemessen wird die Änderung von {@link IncrementalEvaluation#getMaterial} gegenüber dem anderen Team.
+     *
+     * @return Materialgewinn des Teams durch den Zug und die besten Schläge danach
+     */
+    private static int gain(IncrementalEvaluation eval, int team, int from, int to) {
+        int before = difference(eval, team);
+        int undo = eval.make(from, to);
+        int gain = difference(eval, team) - before - recapture(eval, 1 - team, to);
+        eval.unmake(from, to, undo);
+        return gain;
+    }
+
+    /**
+     * @param side Das Team, das auf dem Feld schlagen kann
+     * @return Der beste Gewinn für das Team, 0, wenn sich kein Schlag lohnt
+     */
+    private static int recapture(IncrementalEvaluation eval, int side, int sq) {
+        BitBoard b = eval.getBoard();
+        if (b.team(sq) != 1 - side) {
+            return 0;
+        }
+
+        int best = 0;
+        for (long attackers = b.attackers(sq, side); attackers != 0; attackers &= attackers - 1) {
+            best = Math.max(best, gain(eval, side, Long.numberOfTrailingZeros(attackers), sq));
+        }
+        return best;
+    }
+
+    private static int difference(IncrementalEvaluation eval, int team) {
+        return eval.getMaterial(team) - eval.getMaterial(1 - team);
+    }
+}
@@ -0,0 +1,126 @@
+package sc.player2022.logic;
+
+import sc.plugin2022.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Feste Stellungen für die Tests. Eine Stellung wird als acht Zeilen (y = 0 bis 7) mit je acht Feldern (x = 0 bis 7)
+ * angegeben, jedes Feld mit zwei Zeichen wie in den Stellungen der Benchmarks: ".." ist ein leeres Feld, sonst der
+ * Anfangsbuchstabe des Typs (groß für Team ONE, klein für Team TWO) und die Anzahl der Figuren.
+ */
+public final class TestBoards {
+    /** Eine Startaufstellung, in der jede Figur einer gleichen gegenübersteht */
+    public static final String[] START_SYMMETRIC = {
+            "H1 .. .. .. .. .. .. h1",
+            "M1 .. .. .. .. .. .. m1",
+            "S1 .. .. .. .. .. .. s1",
+            "R1 .. .. .. .. .. .. r1",
+            "R1 .. .. .. .. .. .. r1",
+            "S1 .. .. .. .. .. .. s1",
+            "M1 .. .. .. .. .. .. m1",
+            "H1 .. .. .. .. .. .. h1",
+    };
+
+    /** Eine Startaufstellung, in der sich verschiedene Figuren gegenüberstehen */
+    public static final String[] START_MIXED = {
+            "R1 .. .. .. .. .. .. m1",
+            "H1 .. .. .. .. .. .. r1",
+            "M1 .. .. .. .. .. .. s1",
+            "S1 .. .. .. .. .. .. h1",
+            "H1 .. .. .. .. .. .. s1",
+            "S1 .. .. .. .. .. .. m1",
+            "R1 .. .. .. .. .. .. h1",
+            "M1 .. .. .. .. .. .. r1",
+    };
+
+    /** Türme, Schläge, blockierte Felder und Figuren am Rand */
+    public static final String[] MIDGAME = {
+            "H1 .. .. .. .. .. .. h1",
+            ".. M1 s1 .. .. .. .. ..",
+            "S2 .. R1 .. m1 .. .. s1",
+            ".. .. .. h1 .. .. .. r1",
+            "R1 .. .. .. M1 .. .. ..",
+            ".. .. .. S1 .. r2 .. ..",
+            ".. .. .. .. .. .. h1 m1",
+            "H1 .. .. .. .. .. .. ..",
+    };
+
+    private TestBoards() {
+    }
+
+    /**
+     * @param rows Die acht Zeilen des Bretts
+     * @return Ein neuer Spielstand ohne Bernsteine
+     */
+    public static GameState state(int turn, String... rows) {
+        return state(turn, 0, 0, rows);
+    }
+
+    /**
+     * @param rows Die acht Zeilen des Bretts
+     * @return Ein neuer Spielstand
+     */
+    public static GameState state(int turn, int ambersOne, int ambersTwo, String... rows) {
+        Map<Team, Integer> ambers = new HashMap<>();
+        ambers.put(Team.ONE, ambersOne);
+        ambers.put(Team.TWO, ambersTwo);
+        return new GameState(board(rows), turn, null, ambers);
+    }
+
+    /**
+     * Spielt von der Stellung aus mit zufälligen Zügen bis zum Spielende.
+     *
+     * @param seed Startwert für die Züge, dieselbe Stellung und derselbe Startwert ergeben dasselbe Spiel
+     * @return Alle Stellungen des Spiels, beginnend mit der übergebenen
+     */
+    public static List<GameState> playout(GameState start, long seed) {
+        Random random = new Random(seed);
+        List<GameState> out = new ArrayList<>();
+
+        GameState state = start.clone();
+        while (!state.isOver()) {
+            out.add(state.clone());
+            List<Move> moves = state.getPossibleMoves();
+            state.performMove(moves.get(random.nextInt(moves.size())));
+        }
+        out.add(state);
+        return out;
+    }
+
+    private static Board board(String... rows) {
+        if (rows.length != 8) {
+            throw new IllegalArgumentException(rows.length + " Zeilen statt 8");
+        }
+
+        Map<Coordinates, Piece> pieces = new HashMap<>();
+        for (int y = 0; y < 8; y++) {
+            String[] squares = rows[y].trim().split(" +");
+            if (squares.length != 8) {
+                throw new IllegalArgumentException("Zeile " + y + " hat " + squares.length + " Felder statt 8");
+            }
+            for (int x = 0; x < 8; x++) {
+                char type = squares[x].charAt(0);
+                if (type == '.') {
+                    continue;
+                }
+                Team team = Character.isUpperCase(type) ? Team.ONE : Team.TWO;
+                pieces.put(new Coordinates(x, y), new Piece(type(type), team, squares[x].charAt(1) - '0'));
+            }
+        }
+        return new Board(pieces);
+    }
+
+    private static PieceType type(char c) {
+        for (PieceType type : PieceType.values()) {
+            if (type.name().charAt(0) == Character.toUpperCase(c)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unbekannter Figurentyp: " + c);
+    }
+}
@@ -0,0 +1,71 @@
+package sc.player2022.logic.bitboard;
+
+import org.junit.jupiter.api.Test;
+import sc.player2022.logic.TestBoards;
+import sc.plugin2022.GameState;
+import sc.plugin2022.Move;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vergleicht den {@link MoveGenerator} mit {@link GameState#getPossibleMoves()}, jeweils für das Team am Zug und für
+ * das andere Team. Nach einer neuen Version des Plugins oder einer Änderung am Generator laufen lassen.
+ */
+class MoveGeneratorTest {
+    @Test
+    void startPositions() {
+        assertBothTeams(TestBoards.state(0, TestBoards.START_SYMMETRIC));
+        assertBothTeams(TestBoards.state(0, TestBoards.START_MIXED));
+    }
+
+    @Test
+    void midgame() {
+        assertBothTeams(TestBoards.state(20, TestBoards.MIDGAME));
+    }
+
+    @Test
+    void playouts() {
+        for (long seed = 0; seed < 20; seed++) {
+            for (GameState state : TestBoards.playout(TestBoards.state(0, TestBoards.START_MIXED), seed)) {
+                assertBothTeams(state);
+            }
+        }
+    }
+
+    private static void assertBothTeams(GameState state) {
+        assertMoves(state);
+
+        // Dieselbe Stellung mit dem anderen Team am Zug
+        GameState other = state.clone();
+        other.setTurn(state.getTurn() + 1);
+        assertMoves(other);
+    }
+
+    /**
+     * Prüft neben den Zügen selbst, dass kein Zug doppelt erzeugt wird und Typ und Schlag-Bit stimmen
+     */
+    private static void assertMoves(GameState state) {
+        BitBoard b = BitBoard.of(state);
+        int team = b.getCurrentTeam();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(b, team, moves);
+
+        Set<Move> generated = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            boolean capture = (b.getTeam(1 - team) & 1L << MoveGenerator.to(move)) != 0;
+
+            assertTrue(generated.add(MoveGenerator.toMove(move)), () -> "Doppelter Zug " + MoveGenerator.toMove(move));
+            assertEquals(capture, MoveGenerator.isCapture(move), () -> "Schlag-Bit von " + MoveGenerator.toMove(move));
+            assertEquals(b.type(MoveGenerator.from(move)), MoveGenerator.type(move),
+                    () -> "Typ von " + MoveGenerator.toMove(move));
+        }
+
+        assertEquals(new HashSet<>(state.getPossibleMoves()), generated,
+                () -> "Züge in Zug " + state.getTurn() + ":\n" + state.getBoard());
+    }
+}